@@ -0,0 +1,73 @@
+package com.fixitnow.config;
+
+import com.fixitnow.service.BookingInterval;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Active bookings created before booking_slot_claims existed hold no claims, so the database guard
+ * would let a booking from another node overlap them. Claims the slots of every PENDING or CONFIRMED
+ * booking that has none, from yesterday onward like BookingScheduleIndex. Bookings made before the
+ * guard may already overlap each other; a slot another booking holds is left to that booking.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSlotClaimInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfillClaims() {
+        List<Object[]> claims = new ArrayList<>();
+        Set<Long> bookings = new HashSet<>();
+        jdbcTemplate.query(
+            "SELECT b.id, b.provider_id, b.booking_date, b.time_slot, b.duration_hours FROM bookings b " +
+            "WHERE b.status IN ('PENDING', 'CONFIRMED') AND b.booking_date >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM booking_slot_claims c WHERE c.booking_id = b.id) ORDER BY b.id",
+            rs -> {
+                long bookingId = rs.getLong("id");
+                long providerId = rs.getLong("provider_id");
+                Integer durationHours = rs.getObject("duration_hours", Integer.class);
+                BookingInterval interval = BookingInterval.of(rs.getTimestamp("booking_date").toLocalDateTime(),
+                    rs.getString("time_slot"), durationHours);
+                for (LocalDateTime slot : interval.slotStarts()) {
+                    Timestamp slotStart = Timestamp.valueOf(slot);
+                    claims.add(new Object[] {providerId, slotStart, bookingId, providerId, slotStart});
+                }
+                bookings.add(bookingId);
+            },
+            Timestamp.valueOf(LocalDate.now().minusDays(1).atStartOfDay()));
+        if (claims.isEmpty()) {
+            return;
+        }
+
+        try {
+            int[] inserted = jdbcTemplate.batchUpdate(
+                "INSERT INTO booking_slot_claims (provider_id, slot_start, booking_id) SELECT ?, ?, ? FROM DUAL " +
+                "WHERE NOT EXISTS (SELECT 1 FROM booking_slot_claims WHERE provider_id = ? AND slot_start = ?)",
+                claims);
+            int claimed = Arrays.stream(inserted).map(count -> Math.max(count, 0)).sum();
+            log.info("Backfilled {} slot claims for {} active bookings ({} slots already held by another booking)",
+                claimed, bookings.size(), claims.size() - claimed);
+        } catch (DataIntegrityViolationException e) {
+            // Another node backfilled the same slots at the same time; whatever is left is claimed on the next start
+            log.warn("Slot claim backfill stopped early: {}", e.getMessage());
+        }
+    }
+}
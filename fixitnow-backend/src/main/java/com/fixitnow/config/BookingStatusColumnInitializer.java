@@ -0,0 +1,34 @@
+package com.fixitnow.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * bookings.status used to be generated as a MySQL ENUM of the statuses that existed at the time,
+ * and schema update never changes an existing column. Converts it to the VARCHAR the mapping now
+ * declares, so statuses added later (EXPIRED) can be stored.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class BookingStatusColumnInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void convertEnumColumn() {
+        String dataType = jdbcTemplate.query(
+            "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'bookings' AND COLUMN_NAME = 'status'",
+            rs -> rs.next() ? rs.getString(1) : null);
+        if ("enum".equalsIgnoreCase(dataType)) {
+            jdbcTemplate.execute("ALTER TABLE bookings MODIFY status VARCHAR(20) NOT NULL");
+            log.info("Converted bookings.status from ENUM to VARCHAR(20)");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.fixitnow.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chat messages used to be ordered by id, with read watermarks holding message ids. They are now
+ * ordered by seq, their position in the room, and watermarks hold seqs. Numbers old messages by
+ * id within each room, sets each room's last_seq, and moves id watermarks over to seqs before
+ * dropping the id columns.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageSeqInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrateToSeq() {
+        Integer unnumbered = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM chat_messages WHERE seq IS NULL", Integer.class);
+        if (unnumbered != null && unnumbered > 0) {
+            // Ids were taken one at a time, so they give each room's send order
+            jdbcTemplate.update(
+                "UPDATE chat_messages m JOIN (SELECT id, ROW_NUMBER() OVER " +
+                "(PARTITION BY chat_room_id ORDER BY id) AS seq FROM chat_messages) n ON n.id = m.id " +
+                "SET m.seq = n.seq WHERE m.seq IS NULL");
+            int rooms = jdbcTemplate.update(
+                "UPDATE chat_rooms r SET r.last_seq = " +
+                "(SELECT COALESCE(MAX(m.seq), 0) FROM chat_messages m WHERE m.chat_room_id = r.id)");
+            log.info("Numbered {} chat messages in {} rooms", unnumbered, rooms);
+        }
+
+        if (hasColumn("customer_last_read_id")) {
+            int watermarks = jdbcTemplate.update(
+                "UPDATE chat_rooms r SET " +
+                "r.customer_last_read_seq = (SELECT m.seq FROM chat_messages m WHERE m.id = r.customer_last_read_id), " +
+                "r.provider_last_read_seq = (SELECT m.seq FROM chat_messages m WHERE m.id = r.provider_last_read_id) " +
+                "WHERE r.customer_last_read_id IS NOT NULL OR r.provider_last_read_id IS NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE chat_rooms DROP COLUMN customer_last_read_id");
+            jdbcTemplate.execute("ALTER TABLE chat_rooms DROP COLUMN provider_last_read_id");
+            log.info("Moved read watermarks of {} chat rooms from message ids to seqs", watermarks);
+        }
+    }
+
+    private boolean hasColumn(String column) {
+        Integer columns = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chat_rooms' AND COLUMN_NAME = ?",
+            Integer.class, column);
+        return columns != null && columns > 0;
+    }
+}
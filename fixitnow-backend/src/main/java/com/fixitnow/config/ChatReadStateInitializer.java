@@ -0,0 +1,66 @@
+package com.fixitnow.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chat read state used to be an is_read flag on every message. Rooms now carry their last message,
+ * a last-read watermark and an unread counter per participant, and users their total unread
+ * count, all maintained by ChatService. While the old column is still there, derives the new
+ * columns from it and then drops it, since messages are no longer written with a value for it.
+ * Runs after ChatMessageSeqInitializer, so old messages already have their seq.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "chatMessageSeqInitializer"})
+@RequiredArgsConstructor
+@Slf4j
+public class ChatReadStateInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrateReadState() {
+        Integer isReadColumns = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chat_messages' AND COLUMN_NAME = 'is_read'",
+            Integer.class);
+        if (isReadColumns == null || isReadColumns == 0) {
+            return;
+        }
+
+        // MySQL applies the assignments left to right, so the preview reads the new last_message_id
+        int rooms = jdbcTemplate.update(
+            "UPDATE chat_rooms r SET " +
+            "r.customer_unread = (SELECT COUNT(*) FROM chat_messages m WHERE m.chat_room_id = r.id " +
+            "AND m.sender_id <> r.customer_id AND m.is_read = FALSE), " +
+            "r.provider_unread = (SELECT COUNT(*) FROM chat_messages m WHERE m.chat_room_id = r.id " +
+            "AND m.sender_id <> r.provider_id AND m.is_read = FALSE), " +
+            "r.last_message_id = (SELECT m.id FROM chat_messages m WHERE m.chat_room_id = r.id AND m.seq = r.last_seq), " +
+            "r.last_message_preview = (SELECT LEFT(m.message, 200) FROM chat_messages m WHERE m.id = r.last_message_id), " +
+            "r.last_sender_id = (SELECT m.sender_id FROM chat_messages m WHERE m.id = r.last_message_id) " +
+            "WHERE r.last_message_id IS NULL " +
+            "AND EXISTS (SELECT 1 FROM chat_messages m WHERE m.chat_room_id = r.id)");
+        if (rooms > 0) {
+            jdbcTemplate.update(
+                "UPDATE users u SET u.chat_unread_count = " +
+                "(SELECT COALESCE(SUM(r.customer_unread), 0) FROM chat_rooms r WHERE r.customer_id = u.id) + " +
+                "(SELECT COALESCE(SUM(r.provider_unread), 0) FROM chat_rooms r WHERE r.provider_id = u.id)");
+            log.info("Backfilled last message and unread counters for {} chat rooms", rooms);
+        }
+
+        // Messages were always marked read all at once, so the read ones form a prefix of the room
+        int watermarks = jdbcTemplate.update(
+            "UPDATE chat_rooms r SET " +
+            "r.customer_last_read_seq = (SELECT MAX(m.seq) FROM chat_messages m WHERE m.chat_room_id = r.id " +
+            "AND m.sender_id <> r.customer_id AND m.is_read = TRUE), " +
+            "r.provider_last_read_seq = (SELECT MAX(m.seq) FROM chat_messages m WHERE m.chat_room_id = r.id " +
+            "AND m.sender_id <> r.provider_id AND m.is_read = TRUE) " +
+            "WHERE r.customer_last_read_seq IS NULL AND r.provider_last_read_seq IS NULL");
+        jdbcTemplate.execute("ALTER TABLE chat_messages DROP COLUMN is_read");
+        log.info("Moved chat read state of {} rooms to watermarks and dropped chat_messages.is_read", watermarks);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fixitnow.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Booking and chat message ids used to come from AUTO_INCREMENT and now come from sequence tables.
+ * Before anything can be inserted, moves each sequence past the highest existing id so the first
+ * allocated id cannot collide with old rows. Relies on next_val being the next id to hand out,
+ * which under the pooled-lo optimizer is the first id of the next block.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    // Table whose ids the sequence hands out -> sequence table
+    private static final Map<String, String> SEQUENCES = Map.of(
+        "bookings", "bookings_seq",
+        "chat_messages", "chat_messages_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignWithExistingIds() {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            int updated = jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val <= ?", maxId + 1, maxId);
+            if (updated > 0) {
+                log.info("Moved {} to {} past existing {} ids", sequence, maxId + 1, table);
+            }
+        });
+    }
+}
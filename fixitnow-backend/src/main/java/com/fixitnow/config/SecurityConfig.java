@@ -45,6 +45,7 @@ public class SecurityConfig {
               .requestMatchers("/api/providers/location").permitAll()
               .requestMatchers("/api/providers/{id}").permitAll()
               .requestMatchers("/api/users/providers").permitAll()
+              .requestMatchers("/api/calendar/feeds/**").permitAll()
               .requestMatchers("/api/admin/**").hasRole("ADMIN")
               .requestMatchers("/api/categories/**").hasRole("ADMIN")
               .anyRequest().authenticated()
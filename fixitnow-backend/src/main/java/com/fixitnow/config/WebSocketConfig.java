@@ -1,6 +1,8 @@
 package com.fixitnow.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,6 +12,9 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    @Value("${websocket.inbound-threads:8}")
+    private int inboundThreads;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker to send messages to clients
@@ -23,6 +28,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
     
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Fixed size (the default grows with the CPU count), so the connection pool can be sized for it
+        registration.taskExecutor().corePoolSize(inboundThreads).maxPoolSize(inboundThreads);
+    }
+    
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register the WebSocket endpoint that clients will connect to
@@ -2,6 +2,11 @@ package com.fixitnow.controller;
 
 import com.fixitnow.dto.UserDTO;
 import com.fixitnow.model.Role;
+import com.fixitnow.service.BookingArchiveJob;
+import com.fixitnow.service.BookingExpiryJob;
+import com.fixitnow.service.ChatMessageWriter;
+import com.fixitnow.service.ChatRoomCache;
+import com.fixitnow.service.SearchResultCache;
 import com.fixitnow.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +23,11 @@ import java.util.Map;
 public class AdminController {
 
     private final UserService userService;
+    private final SearchResultCache searchResultCache;
+    private final BookingExpiryJob bookingExpiryJob;
+    private final BookingArchiveJob bookingArchiveJob;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatRoomCache chatRoomCache;
 
     @GetMapping("/users")
     public ResponseEntity<List<UserDTO>> getAllUsers() {
@@ -139,4 +149,41 @@ public class AdminController {
                 "admins", adminCount
         ));
     }
+
+    @GetMapping("/search-cache/stats")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        return ResponseEntity.ok(searchResultCache.stats());
+    }
+
+    @DeleteMapping("/search-cache")
+    public ResponseEntity<?> clearSearchCache() {
+        searchResultCache.clear();
+        return ResponseEntity.ok(Map.of("message", "Search cache cleared"));
+    }
+
+    @GetMapping("/booking-expiry/stats")
+    public ResponseEntity<Map<String, Object>> getBookingExpiryStats() {
+        return ResponseEntity.ok(bookingExpiryJob.stats());
+    }
+
+    @GetMapping("/booking-archive/stats")
+    public ResponseEntity<Map<String, Object>> getBookingArchiveStats() {
+        return ResponseEntity.ok(bookingArchiveJob.stats());
+    }
+
+    @GetMapping("/chat-writer/stats")
+    public ResponseEntity<Map<String, Object>> getChatWriterStats() {
+        return ResponseEntity.ok(chatMessageWriter.stats());
+    }
+
+    @GetMapping("/chat-room-cache/stats")
+    public ResponseEntity<Map<String, Object>> getChatRoomCacheStats() {
+        return ResponseEntity.ok(chatRoomCache.stats());
+    }
+
+    @DeleteMapping("/chat-room-cache")
+    public ResponseEntity<?> clearChatRoomCache() {
+        chatRoomCache.clear();
+        return ResponseEntity.ok(Map.of("message", "Chat room cache cleared"));
+    }
 }
@@ -41,6 +41,8 @@ public class AuthController {
                 .email(req.getEmail())
                 .password(req.getPassword())
                 .location(req.getLocation())
+                .latitude(req.getLatitude())
+                .longitude(req.getLongitude())
                 .build();
                 
         try {
@@ -3,9 +3,12 @@ package com.fixitnow.controller;
 import com.fixitnow.dto.BookingRequest;
 import com.fixitnow.dto.BookingResponse;
 import com.fixitnow.dto.BookingStatusUpdate;
+import com.fixitnow.dto.RecurringBookingRequest;
+import com.fixitnow.dto.RecurringBookingResponse;
 import com.fixitnow.model.BookingStatus;
 import com.fixitnow.model.User;
 import com.fixitnow.service.BookingService;
+import com.fixitnow.service.ProviderStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -27,6 +30,7 @@ import java.util.Map;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final ProviderStatsService providerStatsService;
     
     @PostMapping
     public ResponseEntity<?> createBooking(
@@ -45,6 +49,24 @@ public class BookingController {
         }
     }
     
+    @PostMapping("/recurring")
+    public ResponseEntity<?> createRecurringBookings(
+            @AuthenticationPrincipal User customer,
+            @Valid @RequestBody RecurringBookingRequest request) {
+        try {
+            RecurringBookingResponse result = bookingService.createRecurringBookings(customer.getId(), request);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", result.getBookings().size() + " booking requests created successfully");
+            response.put("bookings", result.getBookings());
+            response.put("skippedDates", result.getSkippedDates());
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getBooking(
             @AuthenticationPrincipal User user,
@@ -97,6 +119,28 @@ public class BookingController {
         }
     }
     
+    @GetMapping("/customer/history")
+    public ResponseEntity<?> getMyBookingHistory(
+            @AuthenticationPrincipal User customer,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortOrder) {
+        try {
+            Sort sort = sortOrder.equalsIgnoreCase("asc") 
+                ? Sort.by(sortBy).ascending() 
+                : Sort.by(sortBy).descending();
+            
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Page<BookingResponse> bookings = bookingService.getCustomerBookingHistory(customer.getId(), status, pageable);
+            
+            return ResponseEntity.ok(bookings);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/customer/upcoming")
     public ResponseEntity<?> getMyUpcomingBookings(@AuthenticationPrincipal User customer) {
         try {
@@ -129,6 +173,28 @@ public class BookingController {
         }
     }
     
+    @GetMapping("/provider/history")
+    public ResponseEntity<?> getProviderBookingHistory(
+            @AuthenticationPrincipal User provider,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortOrder) {
+        try {
+            Sort sort = sortOrder.equalsIgnoreCase("asc") 
+                ? Sort.by(sortBy).ascending() 
+                : Sort.by(sortBy).descending();
+            
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Page<BookingResponse> bookings = bookingService.getProviderBookingHistory(provider.getId(), status, pageable);
+            
+            return ResponseEntity.ok(bookings);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/provider/upcoming")
     public ResponseEntity<?> getProviderUpcomingBookings(@AuthenticationPrincipal User provider) {
         try {
@@ -150,4 +216,13 @@ public class BookingController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+    
+    @GetMapping("/provider/dashboard")
+    public ResponseEntity<?> getProviderDashboard(@AuthenticationPrincipal User provider) {
+        try {
+            return ResponseEntity.ok(providerStatsService.getDashboard(provider.getId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
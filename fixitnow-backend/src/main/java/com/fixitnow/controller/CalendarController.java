@@ -0,0 +1,71 @@
+package com.fixitnow.controller;
+
+import com.fixitnow.model.User;
+import com.fixitnow.service.CalendarFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.security.Principal;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarController {
+
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    private final CalendarFeedService calendarFeedService;
+
+    @GetMapping("/feed")
+    public ResponseEntity<?> getFeedUrl(Principal principal) {
+        try {
+            return ResponseEntity.ok(feedUrl(calendarFeedService.getOrCreateToken(principal.getName())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/feed/reset")
+    public ResponseEntity<?> resetFeedUrl(Principal principal) {
+        try {
+            return ResponseEntity.ok(feedUrl(calendarFeedService.resetToken(principal.getName())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Public: the token in the path is the credential, since calendar apps cannot send a JWT
+    @GetMapping("/feeds/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> getFeed(@PathVariable String token, WebRequest request) {
+        User owner = calendarFeedService.findFeedOwner(token).orElse(null);
+        if (owner == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = calendarFeedService.etag(owner);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        StreamingResponseBody body = out -> calendarFeedService.writeFeed(owner, out);
+        return ResponseEntity.ok()
+            .contentType(TEXT_CALENDAR)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(body);
+    }
+
+    private static Map<String, String> feedUrl(String token) {
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/api/calendar/feeds/{token}.ics")
+            .buildAndExpand(token)
+            .toUriString();
+        return Map.of("token", token, "url", url);
+    }
+}
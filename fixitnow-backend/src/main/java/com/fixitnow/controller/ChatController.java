@@ -2,6 +2,7 @@ package com.fixitnow.controller;
 
 import com.fixitnow.dto.ChatMessageDTO;
 import com.fixitnow.dto.ChatRoomDTO;
+import com.fixitnow.dto.CursorPageDTO;
 import com.fixitnow.dto.SendMessageRequest;
 import com.fixitnow.model.User;
 import com.fixitnow.service.ChatService;
@@ -24,6 +25,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ChatController {
     
+    private static final int MAX_HISTORY_LIMIT = 100;
+    
     private final ChatService chatService;
     
     @PostMapping("/room/{bookingId}")
@@ -58,15 +61,22 @@ public class ChatController {
             @AuthenticationPrincipal User user,
             @PathVariable String roomId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            if (page == 0 && size == 50) {
+            if (before != null || limit != null) {
+                // Keyset paging by message seq: stable while new messages arrive, no count query
+                int sliceSize = Math.max(1, Math.min(limit != null ? limit : 50, MAX_HISTORY_LIMIT));
+                CursorPageDTO<ChatMessageDTO> messages = chatService.getChatMessagesBefore(roomId, user.getId(), before, sliceSize);
+                return ResponseEntity.ok(messages);
+            } else if (page == 0 && size == 50) {
                 // Return recent messages without pagination for initial load
                 List<ChatMessageDTO> messages = chatService.getChatMessages(roomId, user.getId());
                 return ResponseEntity.ok(messages);
             } else {
                 // Return paginated messages
-                Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+                Pageable pageable = PageRequest.of(page, size, Sort.by("seq").descending());
                 Page<ChatMessageDTO> messages = chatService.getChatMessagesPaginated(roomId, user.getId(), pageable);
                 return ResponseEntity.ok(messages);
             }
@@ -115,4 +125,14 @@ public class ChatController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+    
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getTotalUnreadCount(@AuthenticationPrincipal User user) {
+        try {
+            long unreadCount = chatService.getTotalUnreadCount(user.getId());
+            return ResponseEntity.ok(Map.of("unreadCount", unreadCount));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -1,14 +1,17 @@
 package com.fixitnow.controller;
 
 import com.fixitnow.dto.ProviderProfileDTO;
+import com.fixitnow.service.BookingService;
 import com.fixitnow.service.ProviderProfileService;
 import com.fixitnow.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -17,8 +20,11 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ProviderController {
 
+    private static final double MAX_RADIUS_KM = 200;
+
     private final ProviderProfileService providerService;
     private final UserService userService;
+    private final BookingService bookingService;
 
     @GetMapping
     public ResponseEntity<List<ProviderProfileDTO>> getAllProviders() {
@@ -39,7 +45,20 @@ public class ProviderController {
     }
 
     @GetMapping("/location")
-    public ResponseEntity<List<ProviderProfileDTO>> getProvidersByLocation(@RequestParam String location) {
+    public ResponseEntity<?> getProvidersByLocation(
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "50") double radiusKm) {
+        if (latitude != null && longitude != null) {
+            // Nearest-N providers around the given point
+            return ResponseEntity.ok(providerService.findNearestProviders(
+                    latitude, longitude, Math.min(limit, 100), Math.min(radiusKm, MAX_RADIUS_KM)));
+        }
+        if (location == null || location.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "location or latitude/longitude is required"));
+        }
         List<ProviderProfileDTO> providers = providerService.findProvidersByLocation(location);
         return ResponseEntity.ok(providers);
     }
@@ -51,6 +70,21 @@ public class ProviderController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getProviderAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            // Defaults to the coming week
+            LocalDateTime rangeStart = from != null ? from : LocalDateTime.now().withSecond(0).withNano(0);
+            LocalDateTime rangeEnd = to != null ? to : rangeStart.plusDays(7);
+            return ResponseEntity.ok(bookingService.getProviderAvailability(id, rangeStart, rangeEnd));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/profile")
     @PreAuthorize("hasRole('PROVIDER') or hasRole('ADMIN')")
     public ResponseEntity<?> getCurrentProviderProfile() {
@@ -2,6 +2,8 @@ package com.fixitnow.controller;
 
 import com.fixitnow.dto.ServiceListingDTO;
 import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.dto.ServiceSearchResponse;
+import com.fixitnow.dto.SuggestionDTO;
 import com.fixitnow.service.ServiceListingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,39 +25,76 @@ public class ServiceListingController {
 
     // Public endpoints - browse services
     @GetMapping
-    public ResponseEntity<Page<ServiceListingDTO>> getAllServices(
+    public ResponseEntity<?> getAllServices(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (cursor != null) {
+            return scroll(ServiceSearchRequest.builder().cursor(cursor).size(size).includeTotal(includeTotal).build());
+        }
         return ResponseEntity.ok(serviceListingService.findAllActiveServices(page, size));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getServiceById(@PathVariable Long id) {
-        serviceListingService.incrementViewCount(id); // Track view
         return serviceListingService.findServiceById(id)
-                .map(ResponseEntity::ok)
+                .map(service -> {
+                    serviceListingService.incrementViewCount(id); // Track view
+                    return ResponseEntity.ok(service);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<ServiceListingDTO>> getServicesByCategory(
+    public ResponseEntity<?> getServicesByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (cursor != null) {
+            return scroll(ServiceSearchRequest.builder()
+                    .categoryId(categoryId).cursor(cursor).size(size).includeTotal(includeTotal).build());
+        }
         return ResponseEntity.ok(serviceListingService.findServicesByCategory(categoryId, page, size));
     }
 
     @GetMapping("/subcategory/{subcategoryId}")
-    public ResponseEntity<Page<ServiceListingDTO>> getServicesBySubcategory(
+    public ResponseEntity<?> getServicesBySubcategory(
             @PathVariable Long subcategoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (cursor != null) {
+            return scroll(ServiceSearchRequest.builder()
+                    .subcategoryId(subcategoryId).cursor(cursor).size(size).includeTotal(includeTotal).build());
+        }
         return ResponseEntity.ok(serviceListingService.findServicesBySubcategory(subcategoryId, page, size));
     }
 
     @PostMapping("/search")
-    public ResponseEntity<Page<ServiceListingDTO>> searchServices(@RequestBody ServiceSearchRequest searchRequest) {
-        return ResponseEntity.ok(serviceListingService.searchServices(searchRequest));
+    public ResponseEntity<?> searchServices(@RequestBody ServiceSearchRequest searchRequest) {
+        if (searchRequest.getCursor() != null) {
+            return scroll(searchRequest);
+        }
+        Page<ServiceListingDTO> results = serviceListingService.searchServices(searchRequest);
+        if (!Boolean.TRUE.equals(searchRequest.getIncludeFacets())) {
+            return ResponseEntity.ok(results);
+        }
+        return ResponseEntity.ok(ServiceSearchResponse.builder()
+                .results(results)
+                .facets(serviceListingService.findSearchFacets(searchRequest))
+                .build());
+    }
+
+    // Typeahead for the search box; answered from memory, no database access
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(serviceListingService.suggest(q, Math.max(1, Math.min(limit, 20))));
     }
 
     @GetMapping("/provider/{providerProfileId}")
@@ -112,4 +151,13 @@ public class ServiceListingController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    // Keyset paging: no OFFSET and no count query, so deep pages cost the same as the first
+    private ResponseEntity<?> scroll(ServiceSearchRequest searchRequest) {
+        try {
+            return ResponseEntity.ok(serviceListingService.scrollServices(searchRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
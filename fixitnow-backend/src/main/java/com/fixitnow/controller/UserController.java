@@ -57,6 +57,16 @@ public class UserController {
             if (updates.containsKey("location")) {
                 currentUser.setLocation(updates.get("location"));
             }
+            if (updates.containsKey("latitude") && updates.containsKey("longitude")) {
+                Double latitude = coordinate(updates.get("latitude"), 90);
+                Double longitude = coordinate(updates.get("longitude"), 180);
+                if (latitude == null || longitude == null) {
+                    return ResponseEntity.badRequest().body(Map.of("error",
+                            "latitude must be a number between -90 and 90 and longitude between -180 and 180"));
+                }
+                currentUser.setLatitude(latitude);
+                currentUser.setLongitude(longitude);
+            }
             
             UserDTO updatedUser = userService.updateUser(currentUser.getId(), currentUser);
             
@@ -116,4 +126,17 @@ public class UserController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    // Parsed coordinate, or null when missing, not a number or outside [-limit, limit]
+    private static Double coordinate(String value, double limit) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            return Math.abs(parsed) <= limit ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
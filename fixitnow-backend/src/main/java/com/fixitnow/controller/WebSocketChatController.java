@@ -38,6 +38,13 @@ public class WebSocketChatController {
             
             User sender = (User) auth.getPrincipal();
             
+            if (chatService.isAsyncPersistence()) {
+                // Broadcast at once and saved in the background; the sender is acked on /user/queue/chat.acks
+                String ackUser = headerAccessor.getUser() != null ? headerAccessor.getUser().getName() : null;
+                chatService.publishMessage(request.getRoomId(), sender.getId(), request, ackUser);
+                return;
+            }
+            
             // Save message to database
             ChatMessageDTO message = chatService.sendMessage(request.getRoomId(), sender.getId(), request);
             
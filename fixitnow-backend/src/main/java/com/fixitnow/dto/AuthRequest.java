@@ -15,4 +15,6 @@ public class AuthRequest {
     private String name;
     private String role;
     private String location;
+    private Double latitude;
+    private Double longitude;
 }
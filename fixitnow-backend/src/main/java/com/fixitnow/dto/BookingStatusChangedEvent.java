@@ -0,0 +1,40 @@
+package com.fixitnow.dto;
+
+import com.fixitnow.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox event for a booking being created or changing status. Listeners receive it at least
+ * once, so they must tolerate duplicates.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusChangedEvent {
+    
+    private Long bookingId;
+    
+    private Long serviceListingId;
+    
+    private Long customerId;
+    
+    private String customerEmail;
+    
+    private Long providerId;
+    
+    private String providerEmail;
+    
+    private BookingStatus previousStatus; // null when the booking was just created
+    
+    private BookingStatus status;
+    
+    private Long changedBy; // User ID who made the change
+    
+    private LocalDateTime occurredAt;
+}
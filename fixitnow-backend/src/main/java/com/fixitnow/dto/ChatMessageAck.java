@@ -0,0 +1,20 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageAck {
+    
+    private Long messageId;
+    private Long seq; // the saved message's position in the room
+    private String roomId;
+    private String clientMessageId;
+    private boolean persisted; // false: the message was broadcast but could not be saved
+    private String error;
+}
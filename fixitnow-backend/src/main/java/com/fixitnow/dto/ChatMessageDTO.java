@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class ChatMessageDTO {
     
     private Long id;
+    private Long seq; // order within the room; null on a broadcast-first message until it is saved
     private Long chatRoomId;
     private String roomId;
     private Long senderId;
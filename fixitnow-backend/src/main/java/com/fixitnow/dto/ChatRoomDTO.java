@@ -25,4 +25,5 @@ public class ChatRoomDTO {
     private String lastMessage;
     private LocalDateTime lastMessageAt;
     private LocalDateTime createdAt;
+    private Long lastMessageSenderId;
 }
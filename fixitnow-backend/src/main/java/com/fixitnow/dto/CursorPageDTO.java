@@ -0,0 +1,25 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    
+    private List<T> content;
+    
+    private int size;
+    
+    private boolean hasNext;
+    
+    private String nextCursor; // pass back as "cursor" to fetch the following page
+    
+    private Long approximateTotal; // only set when includeTotal was requested
+}
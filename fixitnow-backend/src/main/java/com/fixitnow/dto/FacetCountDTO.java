@@ -0,0 +1,19 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    
+    private String value; // category/subcategory id, pricing type or price band
+    
+    private String label;
+    
+    private long count;
+}
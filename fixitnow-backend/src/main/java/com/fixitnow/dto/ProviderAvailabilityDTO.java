@@ -0,0 +1,26 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderAvailabilityDTO {
+    
+    private Long providerProfileId;
+    
+    private boolean available; // Provider's own availability switch; no free windows when off
+    
+    private LocalDateTime from;
+    
+    private LocalDateTime to;
+    
+    private List<TimeWindowDTO> freeWindows;
+}
@@ -0,0 +1,34 @@
+package com.fixitnow.dto;
+
+import com.fixitnow.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderDashboardDTO {
+    
+    private Long providerId;
+    
+    private Map<BookingStatus, Long> statusCounts;
+    
+    private long totalBookings;
+    
+    private BigDecimal earnings; // Sum of totalPrice over COMPLETED bookings
+    
+    private long upcomingCount; // PENDING or CONFIRMED bookings that have not started yet
+    
+    private BigDecimal rating;
+    
+    private Integer totalReviews;
+    
+    private LocalDateTime reconciledAt; // Last time the counters were recounted from the bookings table
+}
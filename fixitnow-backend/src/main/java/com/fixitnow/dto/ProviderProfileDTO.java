@@ -35,6 +35,16 @@ public class ProviderProfileDTO {
     @Size(max = 500)
     private String serviceArea;
     
+    @DecimalMin(value = "-90.0")
+    @DecimalMax(value = "90.0")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0")
+    @DecimalMax(value = "180.0")
+    private Double longitude;
+    
+    private Double distanceKm; // Only set for location queries
+    
     @DecimalMin(value = "0.0", message = "Hourly rate must be positive")
     @DecimalMax(value = "10000.0", message = "Hourly rate must be reasonable")
     private BigDecimal hourlyRate;
@@ -0,0 +1,51 @@
+package com.fixitnow.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class RecurringBookingRequest {
+    
+    @NotNull(message = "Service listing ID is required")
+    private Long serviceListingId;
+    
+    @NotNull(message = "First booking date is required")
+    private LocalDateTime bookingDate; // First occurrence
+    
+    @NotNull(message = "Time slot is required")
+    private String timeSlot; // Same slot for every occurrence, e.g. "09:00-12:00"
+    
+    private Integer durationHours;
+    
+    @NotNull(message = "Total price is required")
+    private BigDecimal totalPrice; // Per occurrence
+    
+    private String serviceLocation;
+    
+    private String customerNotes;
+    
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency;
+    
+    @Min(1)
+    private Integer interval = 1; // Every N days/weeks/months
+    
+    @Min(1)
+    @Max(100)
+    private Integer occurrences; // Either occurrences or until is required
+    
+    private LocalDateTime until; // Inclusive
+    
+    private Boolean allOrNothing = true; // false books the free occurrences and skips conflicting ones
+    
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+}
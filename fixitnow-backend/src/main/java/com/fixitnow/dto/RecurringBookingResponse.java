@@ -0,0 +1,20 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingResponse {
+    
+    private List<BookingResponse> bookings;
+    
+    private List<LocalDateTime> skippedDates; // Occurrences not booked because the provider was busy
+}
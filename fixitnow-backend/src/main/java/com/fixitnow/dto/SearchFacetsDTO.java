@@ -0,0 +1,25 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDTO {
+    
+    private long totalMatches;
+    
+    private List<FacetCountDTO> categories;
+    
+    private List<FacetCountDTO> subcategories;
+    
+    private List<FacetCountDTO> pricingTypes;
+    
+    private List<FacetCountDTO> priceRanges;
+}
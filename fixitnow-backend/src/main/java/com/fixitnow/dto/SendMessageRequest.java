@@ -14,4 +14,6 @@ public class SendMessageRequest {
     private String message;
     
     private String messageType = "TEXT"; // TEXT, IMAGE, FILE, SYSTEM
+    
+    private String clientMessageId; // optional, echoed back in the WebSocket ack
 }
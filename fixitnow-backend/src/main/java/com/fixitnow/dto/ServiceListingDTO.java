@@ -1,6 +1,7 @@
 package com.fixitnow.dto;
 
 import com.fixitnow.model.PricingType;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -59,6 +60,16 @@ public class ServiceListingDTO {
     @Size(max = 500)
     private String serviceLocation;
     
+    @DecimalMin(value = "-90.0")
+    @DecimalMax(value = "90.0")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0")
+    @DecimalMax(value = "180.0")
+    private Double longitude;
+    
+    private Double distanceKm; // Only set when the search has an origin
+    
     private List<String> imageUrls;
     
     @Size(max = 100)
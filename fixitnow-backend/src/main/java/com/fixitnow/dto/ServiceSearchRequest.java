@@ -21,6 +21,12 @@ public class ServiceSearchRequest {
     
     private String location;
     
+    private Double latitude; // origin for radius filter and distance sort
+    
+    private Double longitude;
+    
+    private Double radiusKm;
+    
     private BigDecimal minPrice;
     
     private BigDecimal maxPrice;
@@ -29,10 +35,18 @@ public class ServiceSearchRequest {
     
     private Boolean verifiedOnly;
     
-    private String sortBy; // price, rating, recent, popular
+    private Boolean fuzzy; // keyword terms also match title/subcategory/skill terms one or two typos away
+    
+    private String sortBy; // price, rating, recent, popular, distance
     
     private String sortOrder; // asc, desc
     
+    private Boolean includeFacets; // adds category/subcategory/pricing/price band counts to the response
+    
+    private String cursor; // set (empty for the first page) to use keyset paging instead of page numbers
+    
+    private Boolean includeTotal; // cursor mode only: adds an approximate total
+    
     @Builder.Default
     private Integer page = 0;
     
@@ -0,0 +1,18 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceSearchResponse {
+    
+    private Page<ServiceListingDTO> results;
+    
+    private SearchFacetsDTO facets;
+}
@@ -0,0 +1,19 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    
+    private String text;
+    
+    private String type; // service, category, subcategory, skill
+    
+    private Long id; // listing, category, subcategory or provider profile id
+}
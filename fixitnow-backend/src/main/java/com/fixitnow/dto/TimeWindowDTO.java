@@ -0,0 +1,19 @@
+package com.fixitnow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeWindowDTO {
+    
+    private LocalDateTime start;
+    
+    private LocalDateTime end; // Exclusive
+}
@@ -38,6 +38,10 @@ public class UserDTO {
     @Size(max = 200)
     private String location;
     
+    private Double latitude;
+    
+    private Double longitude;
+    
     private boolean enabled;
     private Instant createdAt;
     private Instant updatedAt;
@@ -0,0 +1,82 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A finished booking moved out of the bookings table by BookingArchiveJob. Same columns and id as
+ * the original row; rows are only ever written by the job's INSERT ... SELECT.
+ */
+@Entity
+@Table(name = "bookings_archive", indexes = {
+    @Index(name = "idx_booking_archive_customer_status_created", columnList = "customer_id, status, created_at"),
+    @Index(name = "idx_booking_archive_provider_status_created", columnList = "provider_id, status, created_at"),
+    @Index(name = "idx_booking_archive_customer_created", columnList = "customer_id, created_at"),
+    @Index(name = "idx_booking_archive_provider_created", columnList = "provider_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBooking {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_listing_id", nullable = false)
+    private ServiceListing serviceListing;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private User customer;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "provider_id", nullable = false)
+    private User provider;
+    
+    @Column(name = "booking_date", nullable = false)
+    private LocalDateTime bookingDate;
+    
+    @Column(name = "time_slot", nullable = false, length = 50)
+    private String timeSlot;
+    
+    @Column(name = "duration_hours")
+    private Integer durationHours;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status", nullable = false, length = 20)
+    private BookingStatus status;
+    
+    @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+    
+    @Column(name = "service_location", length = 500)
+    private String serviceLocation;
+    
+    @Column(name = "customer_notes", columnDefinition = "TEXT")
+    private String customerNotes;
+    
+    @Column(name = "provider_notes", columnDefinition = "TEXT")
+    private String providerNotes;
+    
+    @Column(name = "cancellation_reason", columnDefinition = "TEXT")
+    private String cancellationReason;
+    
+    @Column(name = "cancelled_by")
+    private Long cancelledBy;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
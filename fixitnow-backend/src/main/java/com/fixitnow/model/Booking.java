@@ -2,20 +2,32 @@ package com.fixitnow.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_booking_customer_status_created", columnList = "customer_id, status, created_at"),
+    @Index(name = "idx_booking_provider_status_created", columnList = "provider_id, status, created_at"),
+    @Index(name = "idx_booking_customer_created", columnList = "customer_id, created_at"),
+    @Index(name = "idx_booking_provider_created", columnList = "provider_id, created_at"),
+    @Index(name = "idx_booking_status_date", columnList = "status, booking_date"),
+    @Index(name = "idx_booking_customer_updated", columnList = "customer_id, updated_at"),
+    @Index(name = "idx_booking_provider_updated", columnList = "provider_id, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Booking {
     
+    // Pooled sequence (a table on MySQL) instead of IDENTITY, so bulk inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +52,7 @@ public class Booking {
     private Integer durationHours;
     
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // Not a MySQL ENUM, so adding a status needs no ALTER
     @Column(name = "status", nullable = false, length = 20)
     private BookingStatus status;
     
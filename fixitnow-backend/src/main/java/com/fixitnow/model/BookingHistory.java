@@ -0,0 +1,87 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view over live and archived bookings, for the background recount of provider counters,
+ * which must see every booking wherever it lives. The archive job moves a row in one transaction,
+ * so a booking is never in both. Request-path reads query bookings or bookings_archive directly,
+ * since a sorted, paged read over the UNION ALL cannot use either table's indexes for the order.
+ */
+@Entity
+@Immutable
+@Subselect("SELECT id, service_listing_id, customer_id, provider_id, booking_date, time_slot, duration_hours, " +
+           "status, total_price, service_location, customer_notes, provider_notes, cancellation_reason, " +
+           "cancelled_by, created_at, updated_at FROM bookings " +
+           "UNION ALL " +
+           "SELECT id, service_listing_id, customer_id, provider_id, booking_date, time_slot, duration_hours, " +
+           "status, total_price, service_location, customer_notes, provider_notes, cancellation_reason, " +
+           "cancelled_by, created_at, updated_at FROM bookings_archive")
+@Synchronize({"bookings", "bookings_archive"})
+@Getter
+@NoArgsConstructor
+public class BookingHistory {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_listing_id")
+    private ServiceListing serviceListing;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
+    private User customer;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "provider_id")
+    private User provider;
+    
+    @Column(name = "booking_date")
+    private LocalDateTime bookingDate;
+    
+    @Column(name = "time_slot")
+    private String timeSlot;
+    
+    @Column(name = "duration_hours")
+    private Integer durationHours;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status")
+    private BookingStatus status;
+    
+    @Column(name = "total_price")
+    private BigDecimal totalPrice;
+    
+    @Column(name = "service_location")
+    private String serviceLocation;
+    
+    @Column(name = "customer_notes")
+    private String customerNotes;
+    
+    @Column(name = "provider_notes")
+    private String providerNotes;
+    
+    @Column(name = "cancellation_reason")
+    private String cancellationReason;
+    
+    @Column(name = "cancelled_by")
+    private Long cancelledBy;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
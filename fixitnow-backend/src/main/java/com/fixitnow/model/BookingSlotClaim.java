@@ -0,0 +1,69 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One fixed-length slot of a provider's time held by an active booking. The primary key makes the
+ * database reject a second booking covering the same slot, whichever application node writes it.
+ */
+@Entity
+@Table(name = "booking_slot_claims", indexes = {
+    @Index(name = "idx_slot_claim_booking", columnList = "booking_id")
+})
+@IdClass(BookingSlotClaim.Key.class)
+@Data
+@NoArgsConstructor
+public class BookingSlotClaim implements Persistable<BookingSlotClaim.Key> {
+    
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId;
+    
+    @Id
+    @Column(name = "slot_start")
+    private LocalDateTime slotStart;
+    
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    
+    // Claims are only ever inserted, so save() must persist (and hit the key) rather than merge
+    @Transient
+    private boolean newClaim = true;
+    
+    public BookingSlotClaim(Long providerId, LocalDateTime slotStart, Long bookingId) {
+        this.providerId = providerId;
+        this.slotStart = slotStart;
+        this.bookingId = bookingId;
+    }
+    
+    @Override
+    public Key getId() {
+        return new Key(providerId, slotStart);
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newClaim;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newClaim = false;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long providerId;
+        private LocalDateTime slotStart;
+    }
+}
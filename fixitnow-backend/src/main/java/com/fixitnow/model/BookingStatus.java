@@ -4,5 +4,6 @@ public enum BookingStatus {
     PENDING,      // Booking request created, waiting for provider response
     CONFIRMED,    // Provider accepted the booking
     COMPLETED,    // Service has been completed
-    CANCELLED     // Booking was cancelled by either party
+    CANCELLED,    // Booking was cancelled by either party
+    EXPIRED       // Still pending when its date passed; set by BookingExpiryJob
 }
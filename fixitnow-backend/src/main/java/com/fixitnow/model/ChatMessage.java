@@ -6,17 +6,26 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    @Index(name = "idx_chat_message_room_seq", columnList = "chat_room_id, seq", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ChatMessage {
     
+    // Sequence, so ids can be handed out before the row is written (see ChatMessageWriter). Ids only
+    // identify a message; with blocks per node they do not follow send order, seq does
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_message_seq")
+    @SequenceGenerator(name = "chat_message_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
     
+    // Position in the room, 1, 2, 3, ..., taken from ChatRoom.lastSeq while the room row is locked
+    @Column(name = "seq")
+    private Long seq;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "chat_room_id", nullable = false)
     private ChatRoom chatRoom;
@@ -28,10 +37,6 @@ public class ChatMessage {
     @Column(name = "message", columnDefinition = "TEXT", nullable = false)
     private String message;
     
-    @Builder.Default
-    @Column(name = "is_read", nullable = false)
-    private Boolean isRead = false;
-    
     @Builder.Default
     @Column(name = "message_type", length = 20)
     private String messageType = "TEXT"; // TEXT, IMAGE, FILE, SYSTEM
@@ -42,9 +47,6 @@ public class ChatMessage {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (isRead == null) {
-            isRead = false;
-        }
         if (messageType == null) {
             messageType = "TEXT";
         }
@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms", indexes = {
+    @Index(name = "idx_chat_room_customer_active_last", columnList = "customer_id, is_active, last_message_at"),
+    @Index(name = "idx_chat_room_provider_active_last", columnList = "provider_id, is_active, last_message_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +42,37 @@ public class ChatRoom {
     @Column(name = "last_message_at")
     private LocalDateTime lastMessageAt;
     
+    // Latest message, kept here so the inbox needs no message reads
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+    
+    @Column(name = "last_message_preview", length = 200)
+    private String lastMessagePreview;
+    
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+    
+    // Seq of the room's latest message; the next message gets lastSeq + 1
+    @Builder.Default
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq = 0L;
+    
+    // Seq of the last message each participant has read; everything above it from the other side is unread
+    @Column(name = "customer_last_read_seq")
+    private Long customerLastReadSeq;
+    
+    @Column(name = "provider_last_read_seq")
+    private Long providerLastReadSeq;
+    
+    // Messages each participant has not read yet
+    @Builder.Default
+    @Column(name = "customer_unread", nullable = false)
+    private Integer customerUnread = 0;
+    
+    @Builder.Default
+    @Column(name = "provider_unread", nullable = false)
+    private Integer providerUnread = 0;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -52,6 +86,15 @@ public class ChatRoom {
         if (isActive == null) {
             isActive = true;
         }
+        if (lastSeq == null) {
+            lastSeq = 0L;
+        }
+        if (customerUnread == null) {
+            customerUnread = 0;
+        }
+        if (providerUnread == null) {
+            providerUnread = 0;
+        }
     }
     
     @PreUpdate
@@ -0,0 +1,53 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-limited ownership of a scheduled job, so only one application node runs it at a time.
+ */
+@Entity
+@Table(name = "job_leases")
+@Data
+@NoArgsConstructor
+public class JobLease implements Persistable<String> {
+    
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+    
+    @Column(name = "owner", length = 200)
+    private String owner;
+    
+    @Column(name = "leased_until", nullable = false)
+    private LocalDateTime leasedUntil;
+    
+    // Rows are created once with an assigned id, so save() must persist rather than merge
+    @Transient
+    private boolean newRow = true;
+    
+    public JobLease(String name, LocalDateTime leasedUntil) {
+        this.name = name;
+        this.leasedUntil = leasedUntil;
+    }
+    
+    @Override
+    public String getId() {
+        return name;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newRow = false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event recorded in the same transaction as the change that caused it and delivered to
+ * in-process listeners afterwards by OutboxDispatcher.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_due", columnList = "status, available_at, id"),
+    @Index(name = "idx_outbox_processed", columnList = "status, processed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    // Pooled sequence so events written together (e.g. recurring bookings) are batch-inserted
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+    
+    @Column(name = "aggregate_id")
+    private Long aggregateId; // e.g. booking id; events of one aggregate are delivered in order within a batch
+    
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status;
+    
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt; // Not delivered before this time (retry backoff and claim lease)
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+        if (status == null) {
+            status = OutboxStatus.PENDING;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.fixitnow.model;
+
+public enum OutboxStatus {
+    PENDING,    // Waiting for (re)delivery
+    PROCESSED,  // Delivered to all listeners
+    FAILED      // Gave up after the maximum number of attempts
+}
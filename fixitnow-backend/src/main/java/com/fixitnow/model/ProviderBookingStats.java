@@ -0,0 +1,70 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running booking totals for one provider, kept in step with booking writes by delta updates and
+ * periodically recounted from the bookings table.
+ */
+@Entity
+@Table(name = "provider_booking_stats")
+@Data
+@NoArgsConstructor
+public class ProviderBookingStats implements Persistable<Long> {
+    
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId; // User ID of the provider
+    
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+    
+    @Column(name = "confirmed_count", nullable = false)
+    private long confirmedCount;
+    
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+    
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+    
+    @Column(name = "expired_count", nullable = false)
+    private long expiredCount;
+    
+    // Sum of totalPrice over COMPLETED bookings
+    @Column(name = "earnings", nullable = false, precision = 14, scale = 2)
+    private BigDecimal earnings = BigDecimal.ZERO;
+    
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+    
+    // Rows are created once with an assigned id, so save() must persist rather than merge
+    @Transient
+    private boolean newRow = true;
+    
+    public ProviderBookingStats(Long providerId) {
+        this.providerId = providerId;
+    }
+    
+    @Override
+    public Long getId() {
+        return providerId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newRow = false;
+    }
+}
@@ -46,6 +46,14 @@ public class ProviderProfile {
     @Size(max = 500)
     private String serviceArea; // Geographic service area
     
+    @DecimalMin(value = "-90.0")
+    @DecimalMax(value = "90.0")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0")
+    @DecimalMax(value = "180.0")
+    private Double longitude;
+    
     @DecimalMin(value = "0.0", message = "Hourly rate must be positive")
     @DecimalMax(value = "10000.0", message = "Hourly rate must be reasonable")
     private BigDecimal hourlyRate;
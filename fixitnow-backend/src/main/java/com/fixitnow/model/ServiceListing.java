@@ -1,6 +1,7 @@
 package com.fixitnow.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -21,7 +22,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "service_listings")
+@Table(name = "service_listings", indexes = {
+    @Index(name = "idx_listing_active_created", columnList = "active, created_at, id"),
+    @Index(name = "idx_listing_category_created", columnList = "category_id, active, created_at, id"),
+    @Index(name = "idx_listing_subcategory_created", columnList = "subcategory_id, active, created_at, id")
+})
 public class ServiceListing {
     
     @Id
@@ -62,6 +67,14 @@ public class ServiceListing {
     @Size(max = 500)
     private String serviceLocation; // Where service is offered
     
+    @DecimalMin(value = "-90.0")
+    @DecimalMax(value = "90.0")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0")
+    @DecimalMax(value = "180.0")
+    private Double longitude;
+    
     @ElementCollection
     @CollectionTable(name = "service_images", joinColumns = @JoinColumn(name = "service_id"))
     @Column(name = "image_url")
@@ -78,12 +91,20 @@ public class ServiceListing {
     @Builder.Default
     private boolean active = true;
     
+    // Counters are only changed through atomic increments in ServiceListingRepository, so saving a
+    // listing never writes back a stale value
     @Builder.Default
+    @Column(updatable = false)
     private Integer viewCount = 0;
     
     @Builder.Default
+    @Column(updatable = false)
     private Integer bookingCount = 0;
     
+    // Log-scale time-decayed activity (see PopularityScore); only changed through bulk updates
+    @Column(name = "activity_score", updatable = false)
+    private Double activityScore;
+    
     @CreationTimestamp
     @Column(updatable = false)
     private Instant createdAt;
@@ -0,0 +1,92 @@
+package com.fixitnow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Flattened, join-free copy of an active service listing with the provider and category fields
+ * that search filters and sorts on. Maintained incrementally by ServiceSearchViewService.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "service_search_view", indexes = {
+    @Index(name = "idx_search_created", columnList = "created_at, id"),
+    @Index(name = "idx_search_category_created", columnList = "category_id, created_at, id"),
+    @Index(name = "idx_search_subcategory_created", columnList = "subcategory_id, created_at, id"),
+    @Index(name = "idx_search_price", columnList = "price, id"),
+    @Index(name = "idx_search_rating", columnList = "provider_rating, id"),
+    @Index(name = "idx_search_category_rating", columnList = "category_id, provider_rating, id"),
+    @Index(name = "idx_search_popular", columnList = "popularity_score, id"),
+    @Index(name = "idx_search_category_popular", columnList = "category_id, popularity_score, id"),
+    @Index(name = "idx_search_subcategory_popular", columnList = "subcategory_id, popularity_score, id"),
+    @Index(name = "idx_search_provider", columnList = "provider_profile_id")
+})
+public class ServiceSearchEntry {
+    
+    @Id
+    private Long id; // Same as the service listing id
+    
+    @Column(name = "provider_profile_id", nullable = false)
+    private Long providerProfileId;
+    
+    @Column(name = "provider_rating", precision = 3, scale = 2)
+    private BigDecimal providerRating;
+    
+    @Column(name = "provider_total_reviews")
+    private Integer providerTotalReviews;
+    
+    @Column(name = "provider_verified", nullable = false)
+    private boolean providerVerified;
+    
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+    
+    @Column(name = "category_name", length = 100)
+    private String categoryName;
+    
+    @Column(name = "subcategory_id")
+    private Long subcategoryId;
+    
+    @Column(name = "subcategory_name", length = 100)
+    private String subcategoryName;
+    
+    @Column(length = 200)
+    private String title;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pricing_type", length = 20)
+    private PricingType pricingType;
+    
+    @Column(name = "service_location", length = 500)
+    private String serviceLocation;
+    
+    private Double latitude;
+    
+    private Double longitude;
+    
+    @Column(name = "view_count")
+    private Integer viewCount;
+    
+    @Column(name = "booking_count")
+    private Integer bookingCount;
+    
+    // Listing activity score plus the provider rating boost; drives the "popular" and "relevance" sorts.
+    // Changed only by the bulk updates in ServiceSearchEntryRepository.
+    @Column(name = "popularity_score", updatable = false)
+    private Double popularityScore;
+    
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
@@ -49,6 +49,10 @@ public class User {
     @Size(max = 200)
     private String location;
 
+    private Double latitude;
+
+    private Double longitude;
+
     @CreationTimestamp
     @Column(updatable = false)
     private Instant createdAt;
@@ -57,4 +61,13 @@ public class User {
     private Instant updatedAt;
 
     private boolean enabled = true;
+
+    // Secret part of the user's calendar feed URL; null until the feed is first requested
+    @Column(name = "calendar_token", unique = true, length = 64)
+    private String calendarToken;
+
+    // Unread chat messages across all the user's rooms, for the inbox badge
+    @Builder.Default
+    @Column(name = "chat_unread_count", nullable = false)
+    private int chatUnreadCount = 0;
 }
@@ -0,0 +1,61 @@
+package com.fixitnow.repository;
+
+import com.fixitnow.dto.BookingResponse;
+import com.fixitnow.model.ArchivedBooking;
+import com.fixitnow.model.BookingStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    
+    // Same BookingResponse rows as BookingRepository, read from the archive table and its own indexes
+    String RESPONSE_SELECT = BookingRepository.RESPONSE_COLUMNS + "FROM ArchivedBooking b " + BookingRepository.RESPONSE_JOINS;
+    
+    @Query(RESPONSE_SELECT + "WHERE b.id = :id")
+    Optional<BookingResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(value = RESPONSE_SELECT + "WHERE b.customer.id = :customerId",
+           countQuery = "SELECT COUNT(b) FROM ArchivedBooking b WHERE b.customer.id = :customerId")
+    Page<BookingResponse> findResponsesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+    
+    @Query(value = RESPONSE_SELECT + "WHERE b.provider.id = :providerId",
+           countQuery = "SELECT COUNT(b) FROM ArchivedBooking b WHERE b.provider.id = :providerId")
+    Page<BookingResponse> findResponsesByProviderId(@Param("providerId") Long providerId, Pageable pageable);
+    
+    @Query(value = RESPONSE_SELECT + "WHERE b.customer.id = :customerId AND b.status = :status",
+           countQuery = "SELECT COUNT(b) FROM ArchivedBooking b WHERE b.customer.id = :customerId AND b.status = :status")
+    Page<BookingResponse> findResponsesByCustomerIdAndStatus(
+        @Param("customerId") Long customerId,
+        @Param("status") BookingStatus status,
+        Pageable pageable
+    );
+    
+    @Query(value = RESPONSE_SELECT + "WHERE b.provider.id = :providerId AND b.status = :status",
+           countQuery = "SELECT COUNT(b) FROM ArchivedBooking b WHERE b.provider.id = :providerId AND b.status = :status")
+    Page<BookingResponse> findResponsesByProviderIdAndStatus(
+        @Param("providerId") Long providerId,
+        @Param("status") BookingStatus status,
+        Pageable pageable
+    );
+    
+    // Copies the given bookings into the archive in one statement, keeping their ids
+    @Modifying
+    @Query("INSERT INTO ArchivedBooking (id, serviceListing, customer, provider, bookingDate, timeSlot, " +
+           "durationHours, status, totalPrice, serviceLocation, customerNotes, providerNotes, " +
+           "cancellationReason, cancelledBy, createdAt, updatedAt, archivedAt) " +
+           "SELECT b.id, b.serviceListing, b.customer, b.provider, b.bookingDate, b.timeSlot, " +
+           "b.durationHours, b.status, b.totalPrice, b.serviceLocation, b.customerNotes, b.providerNotes, " +
+           "b.cancellationReason, b.cancelledBy, b.createdAt, b.updatedAt, :now " +
+           "FROM Booking b WHERE b.id IN :ids")
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
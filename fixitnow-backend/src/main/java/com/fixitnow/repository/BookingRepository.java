@@ -1,76 +1,246 @@
 package com.fixitnow.repository;
 
+import com.fixitnow.dto.BookingResponse;
 import com.fixitnow.model.Booking;
 import com.fixitnow.model.BookingStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
+    // One row per booking with the listing, category, customer and provider columns joined in
+    String RESPONSE_COLUMNS = "SELECT new com.fixitnow.dto.BookingResponse(" +
+           "b.id, s.id, s.title, c.name, cu.id, cu.name, cu.email, p.id, p.name, p.email, " +
+           "b.bookingDate, b.timeSlot, b.durationHours, b.status, b.totalPrice, b.serviceLocation, " +
+           "b.customerNotes, b.providerNotes, b.cancellationReason, b.cancelledBy, b.createdAt, b.updatedAt) ";
+    String RESPONSE_JOINS = "JOIN b.serviceListing s JOIN s.category c JOIN b.customer cu JOIN b.provider p ";
+    
+    // Live bookings only; archived ones are read through ArchivedBookingRepository
+    String RESPONSE_SELECT = RESPONSE_COLUMNS + "FROM Booking b " + RESPONSE_JOINS;
+    
+    @Query(RESPONSE_SELECT + "WHERE b.id = :id")
+    Optional<BookingResponse> findResponseById(@Param("id") Long id);
+    
     // Find bookings by customer
-    Page<Booking> findByCustomerId(Long customerId, Pageable pageable);
+    @Query(value = RESPONSE_SELECT + "WHERE b.customer.id = :customerId",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.customer.id = :customerId")
+    Page<BookingResponse> findResponsesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
     
     // Find bookings by provider
-    Page<Booking> findByProviderId(Long providerId, Pageable pageable);
+    @Query(value = RESPONSE_SELECT + "WHERE b.provider.id = :providerId",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.provider.id = :providerId")
+    Page<BookingResponse> findResponsesByProviderId(@Param("providerId") Long providerId, Pageable pageable);
     
     // Find bookings by service listing
     Page<Booking> findByServiceListingId(Long serviceListingId, Pageable pageable);
     
     // Find bookings by customer and status
-    Page<Booking> findByCustomerIdAndStatus(Long customerId, BookingStatus status, Pageable pageable);
+    @Query(value = RESPONSE_SELECT + "WHERE b.customer.id = :customerId AND b.status = :status",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.customer.id = :customerId AND b.status = :status")
+    Page<BookingResponse> findResponsesByCustomerIdAndStatus(
+        @Param("customerId") Long customerId,
+        @Param("status") BookingStatus status,
+        Pageable pageable
+    );
     
     // Find bookings by provider and status
-    Page<Booking> findByProviderIdAndStatus(Long providerId, BookingStatus status, Pageable pageable);
+    @Query(value = RESPONSE_SELECT + "WHERE b.provider.id = :providerId AND b.status = :status",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.provider.id = :providerId AND b.status = :status")
+    Page<BookingResponse> findResponsesByProviderIdAndStatus(
+        @Param("providerId") Long providerId,
+        @Param("status") BookingStatus status,
+        Pageable pageable
+    );
     
     // Find pending bookings for provider
     List<Booking> findByProviderIdAndStatus(Long providerId, BookingStatus status);
     
     // Find upcoming bookings for customer
-    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId " +
+    @Query(RESPONSE_SELECT + "WHERE b.customer.id = :customerId " +
            "AND b.bookingDate >= :fromDate AND b.status IN :statuses " +
            "ORDER BY b.bookingDate ASC")
-    List<Booking> findUpcomingBookingsForCustomer(
+    List<BookingResponse> findUpcomingBookingsForCustomer(
         @Param("customerId") Long customerId,
         @Param("fromDate") LocalDateTime fromDate,
         @Param("statuses") List<BookingStatus> statuses
     );
     
     // Find upcoming bookings for provider
-    @Query("SELECT b FROM Booking b WHERE b.provider.id = :providerId " +
+    @Query(RESPONSE_SELECT + "WHERE b.provider.id = :providerId " +
            "AND b.bookingDate >= :fromDate AND b.status IN :statuses " +
            "ORDER BY b.bookingDate ASC")
-    List<Booking> findUpcomingBookingsForProvider(
+    List<BookingResponse> findUpcomingBookingsForProvider(
         @Param("providerId") Long providerId,
         @Param("fromDate") LocalDateTime fromDate,
         @Param("statuses") List<BookingStatus> statuses
     );
     
-    // Check for conflicting bookings (same provider, date, time slot)
-    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.provider.id = :providerId " +
-           "AND b.bookingDate = :bookingDate AND b.timeSlot = :timeSlot " +
-           "AND b.status IN ('PENDING', 'CONFIRMED')")
-    boolean existsConflictingBooking(
+    // Scheduling fields only, for building provider schedules
+    @Query("SELECT b.id AS id, b.provider.id AS providerId, b.bookingDate AS bookingDate, " +
+           "b.timeSlot AS timeSlot, b.durationHours AS durationHours FROM Booking b " +
+           "WHERE b.status IN :statuses AND b.bookingDate >= :fromDate")
+    List<BookingSlot> findSlotsByStatusInAndBookingDateAfter(
+        @Param("statuses") List<BookingStatus> statuses,
+        @Param("fromDate") LocalDateTime fromDate
+    );
+    
+    @Query("SELECT b.id AS id, b.provider.id AS providerId, b.bookingDate AS bookingDate, " +
+           "b.timeSlot AS timeSlot, b.durationHours AS durationHours FROM Booking b " +
+           "WHERE b.provider.id = :providerId AND b.status IN :statuses " +
+           "AND b.bookingDate >= :fromDate AND b.bookingDate < :toDate")
+    List<BookingSlot> findSlotsForProvider(
         @Param("providerId") Long providerId,
-        @Param("bookingDate") LocalDateTime bookingDate,
-        @Param("timeSlot") String timeSlot
+        @Param("statuses") List<BookingStatus> statuses,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
     );
     
     // Count bookings by status
     long countByProviderIdAndStatus(Long providerId, BookingStatus status);
     long countByCustomerIdAndStatus(Long customerId, BookingStatus status);
     
+    // Booking row locked for a status change, so it cannot race the expiry job
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+    
+    // PENDING bookings dated before the cutoff, with what the expiry job needs to notify and count them
+    @Query("SELECT b.id AS id, p.id AS providerId, b.serviceListing.id AS serviceListingId, " +
+           "cu.id AS customerId, cu.email AS customerEmail, p.email AS providerEmail, " +
+           "b.bookingDate AS bookingDate, b.timeSlot AS timeSlot, b.durationHours AS durationHours " +
+           "FROM Booking b JOIN b.customer cu JOIN b.provider p " +
+           "WHERE b.status = com.fixitnow.model.BookingStatus.PENDING AND b.bookingDate < :cutoff " +
+           "ORDER BY b.bookingDate")
+    List<ExpiringBooking> findPendingBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.fixitnow.model.BookingStatus.EXPIRED, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = com.fixitnow.model.BookingStatus.PENDING")
+    int expirePending(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+    
     // Find booking by ID and customer
     Optional<Booking> findByIdAndCustomerId(Long id, Long customerId);
     
     // Find booking by ID and provider
     Optional<Booking> findByIdAndProviderId(Long id, Long providerId);
+    
+    // Booking count and price total per status, archive included, for recounting a provider's dashboard counters
+    @Query("SELECT b.status AS status, COUNT(b) AS bookings, SUM(b.totalPrice) AS totalPrice " +
+           "FROM BookingHistory b WHERE b.provider.id = :providerId GROUP BY b.status")
+    List<StatusTotal> sumByStatusForProvider(@Param("providerId") Long providerId);
+    
+    @Query("SELECT DISTINCT b.provider.id FROM BookingHistory b")
+    List<Long> findDistinctProviderIds();
+    
+    // Finished bookings last touched before the cutoff
+    String FINISHED_BEFORE = "FROM Booking b WHERE b.status IN :statuses AND b.bookingDate < :cutoff " +
+           "AND (b.updatedAt IS NULL OR b.updatedAt < :cutoff) ";
+    
+    // Bookings with a chat room stay, as chat_rooms references them
+    @Query("SELECT b.id " + FINISHED_BEFORE +
+           "AND NOT EXISTS (SELECT 1 FROM ChatRoom r WHERE r.booking.id = b.id) " +
+           "ORDER BY b.bookingDate")
+    List<Long> findArchivableIds(
+        @Param("statuses") Collection<BookingStatus> statuses,
+        @Param("cutoff") LocalDateTime cutoff,
+        Pageable pageable
+    );
+    
+    @Query("SELECT COUNT(b) " + FINISHED_BEFORE +
+           "AND EXISTS (SELECT 1 FROM ChatRoom r WHERE r.booking.id = b.id)")
+    long countFinishedWithChatRoom(
+        @Param("statuses") Collection<BookingStatus> statuses,
+        @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Calendar feed rows, streamed from the server (MIN_VALUE fetch size makes MySQL stream row by row)
+    String CALENDAR_SELECT = "SELECT b.id AS id, b.bookingDate AS bookingDate, b.timeSlot AS timeSlot, " +
+           "b.durationHours AS durationHours, b.status AS status, b.totalPrice AS totalPrice, " +
+           "b.serviceLocation AS serviceLocation, b.updatedAt AS updatedAt, s.title AS serviceTitle, " +
+           "cu.name AS customerName, p.name AS providerName " +
+           "FROM Booking b JOIN b.serviceListing s JOIN b.customer cu JOIN b.provider p ";
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query(CALENDAR_SELECT + "WHERE b.provider.id = :userId AND b.bookingDate >= :fromDate ORDER BY b.bookingDate")
+    Stream<CalendarEntry> streamCalendarForProvider(@Param("userId") Long userId, @Param("fromDate") LocalDateTime fromDate);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query(CALENDAR_SELECT + "WHERE b.customer.id = :userId AND b.bookingDate >= :fromDate ORDER BY b.bookingDate")
+    Stream<CalendarEntry> streamCalendarForCustomer(@Param("userId") Long userId, @Param("fromDate") LocalDateTime fromDate);
+    
+    // Changes whenever one of the user's bookings is created or updated; read from the (user, updated_at) indexes
+    @Query("SELECT COUNT(b) AS bookings, MAX(b.updatedAt) AS lastUpdated FROM Booking b WHERE b.provider.id = :userId")
+    FeedVersion findFeedVersionForProvider(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(b) AS bookings, MAX(b.updatedAt) AS lastUpdated FROM Booking b WHERE b.customer.id = :userId")
+    FeedVersion findFeedVersionForCustomer(@Param("userId") Long userId);
+    
+    interface BookingSlot {
+        Long getId();
+        Long getProviderId();
+        LocalDateTime getBookingDate();
+        String getTimeSlot();
+        Integer getDurationHours();
+    }
+    
+    interface ExpiringBooking {
+        Long getId();
+        Long getProviderId();
+        Long getServiceListingId();
+        Long getCustomerId();
+        String getCustomerEmail();
+        String getProviderEmail();
+        LocalDateTime getBookingDate();
+        String getTimeSlot();
+        Integer getDurationHours();
+    }
+    
+    interface CalendarEntry {
+        Long getId();
+        LocalDateTime getBookingDate();
+        String getTimeSlot();
+        Integer getDurationHours();
+        BookingStatus getStatus();
+        BigDecimal getTotalPrice();
+        String getServiceLocation();
+        LocalDateTime getUpdatedAt();
+        String getServiceTitle();
+        String getCustomerName();
+        String getProviderName();
+    }
+    
+    interface FeedVersion {
+        Long getBookings();
+        LocalDateTime getLastUpdated();
+    }
+    
+    interface StatusTotal {
+        BookingStatus getStatus();
+        Long getBookings();
+        BigDecimal getTotalPrice();
+    }
 }
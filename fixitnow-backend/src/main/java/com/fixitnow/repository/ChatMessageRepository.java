@@ -3,8 +3,8 @@ package com.fixitnow.repository;
 import com.fixitnow.model.ChatMessage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,21 +15,18 @@ import java.util.List;
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     
     // Find messages by chat room with pagination
-    Page<ChatMessage> findByChatRoomIdOrderByCreatedAtDesc(Long chatRoomId, Pageable pageable);
+    Page<ChatMessage> findByChatRoomIdOrderBySeqDesc(Long chatRoomId, Pageable pageable);
     
     // Find recent messages by chat room
-    List<ChatMessage> findTop50ByChatRoomIdOrderByCreatedAtDesc(Long chatRoomId);
+    List<ChatMessage> findTop50ByChatRoomIdOrderBySeqDesc(Long chatRoomId);
     
-    // Count unread messages for a user in a chat room
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom.id = :chatRoomId " +
-           "AND m.sender.id != :userId AND m.isRead = false")
-    long countUnreadMessages(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId);
+    // Keyset slices, newest first, read backwards along the (chat_room_id, seq) index
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :chatRoomId ORDER BY m.seq DESC")
+    Slice<ChatMessage> findLatest(@Param("chatRoomId") Long chatRoomId, Pageable pageable);
     
-    // Mark messages as read
-    @Modifying
-    @Query("UPDATE ChatMessage m SET m.isRead = true WHERE m.chatRoom.id = :chatRoomId " +
-           "AND m.sender.id != :userId AND m.isRead = false")
-    void markMessagesAsRead(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId);
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :chatRoomId " +
+           "AND m.seq < :beforeSeq ORDER BY m.seq DESC")
+    Slice<ChatMessage> findBefore(@Param("chatRoomId") Long chatRoomId, @Param("beforeSeq") Long beforeSeq, Pageable pageable);
     
     // Count total messages in chat room
     long countByChatRoomId(Long chatRoomId);
@@ -1,7 +1,10 @@
 package com.fixitnow.repository;
 
+import com.fixitnow.dto.ChatRoomDTO;
 import com.fixitnow.model.ChatRoom;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,18 +18,38 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // Find chat room by room ID
     Optional<ChatRoom> findByRoomId(String roomId);
     
+    // Room row locked while a message is added or read, so its counters cannot interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT cr FROM ChatRoom cr WHERE cr.id = :id")
+    Optional<ChatRoom> findByIdForUpdate(@Param("id") Long id);
+    
+    // Who is in a room and under what names, for ChatRoomCache
+    @Query("SELECT cr.id AS id, cr.roomId AS roomId, cr.isActive AS active, cu.id AS customerId, " +
+           "cu.name AS customerName, p.id AS providerId, p.name AS providerName " +
+           "FROM ChatRoom cr JOIN cr.customer cu JOIN cr.provider p WHERE cr.roomId = :roomId")
+    Optional<RoomParticipants> findParticipantsByRoomId(@Param("roomId") String roomId);
+    
+    // Read watermarks and unread counters, the part of a room that changes with every message
+    @Query("SELECT cr.customerLastReadSeq AS customerLastReadSeq, cr.providerLastReadSeq AS providerLastReadSeq, " +
+           "cr.customerUnread AS customerUnread, cr.providerUnread AS providerUnread " +
+           "FROM ChatRoom cr WHERE cr.id = :id")
+    Optional<ReadState> findReadStateById(@Param("id") Long id);
+    
     // Find chat room by booking
     Optional<ChatRoom> findByBookingId(Long bookingId);
     
-    // Find all chat rooms for a customer
-    @Query("SELECT cr FROM ChatRoom cr WHERE cr.customer.id = :customerId " +
-           "AND cr.isActive = true ORDER BY cr.lastMessageAt DESC")
-    List<ChatRoom> findActiveRoomsByCustomerId(@Param("customerId") Long customerId);
+    // Inbox rows straight from the room's denormalized columns; served by the (user, is_active, last_message_at) indexes
+    @Query("SELECT new com.fixitnow.dto.ChatRoomDTO(cr.id, cr.roomId, cr.booking.id, cu.id, cu.name, p.id, p.name, " +
+           "cr.isActive, CAST(cr.customerUnread AS Long), cr.lastMessagePreview, cr.lastMessageAt, cr.createdAt, " +
+           "cr.lastSenderId) FROM ChatRoom cr JOIN cr.customer cu JOIN cr.provider p " +
+           "WHERE cr.customer.id = :customerId AND cr.isActive = true ORDER BY cr.lastMessageAt DESC")
+    List<ChatRoomDTO> findInboxForCustomer(@Param("customerId") Long customerId);
     
-    // Find all chat rooms for a provider
-    @Query("SELECT cr FROM ChatRoom cr WHERE cr.provider.id = :providerId " +
-           "AND cr.isActive = true ORDER BY cr.lastMessageAt DESC")
-    List<ChatRoom> findActiveRoomsByProviderId(@Param("providerId") Long providerId);
+    @Query("SELECT new com.fixitnow.dto.ChatRoomDTO(cr.id, cr.roomId, cr.booking.id, cu.id, cu.name, p.id, p.name, " +
+           "cr.isActive, CAST(cr.providerUnread AS Long), cr.lastMessagePreview, cr.lastMessageAt, cr.createdAt, " +
+           "cr.lastSenderId) FROM ChatRoom cr JOIN cr.customer cu JOIN cr.provider p " +
+           "WHERE cr.provider.id = :providerId AND cr.isActive = true ORDER BY cr.lastMessageAt DESC")
+    List<ChatRoomDTO> findInboxForProvider(@Param("providerId") Long providerId);
     
     // Find chat room by customer and provider
     @Query("SELECT cr FROM ChatRoom cr WHERE cr.customer.id = :customerId " +
@@ -39,4 +62,21 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     
     // Check if chat room exists for booking
     boolean existsByBookingId(Long bookingId);
+    
+    interface RoomParticipants {
+        Long getId();
+        String getRoomId();
+        Boolean getActive();
+        Long getCustomerId();
+        String getCustomerName();
+        Long getProviderId();
+        String getProviderName();
+    }
+    
+    interface ReadState {
+        Long getCustomerLastReadSeq();
+        Long getProviderLastReadSeq();
+        Integer getCustomerUnread();
+        Integer getProviderUnread();
+    }
 }
@@ -0,0 +1,29 @@
+package com.fixitnow.repository;
+
+import com.fixitnow.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+    
+    // Takes the lease if it has run out, or extends it if the caller already holds it
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.leasedUntil = :until " +
+           "WHERE l.name = :name AND (l.leasedUntil < :now OR l.owner = :owner)")
+    int acquire(
+        @Param("name") String name,
+        @Param("owner") String owner,
+        @Param("now") LocalDateTime now,
+        @Param("until") LocalDateTime until
+    );
+    
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = null, l.leasedUntil = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
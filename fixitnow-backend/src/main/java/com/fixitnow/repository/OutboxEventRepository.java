@@ -0,0 +1,49 @@
+package com.fixitnow.repository;
+
+import com.fixitnow.model.OutboxEvent;
+import com.fixitnow.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Due events, locked with SKIP LOCKED (timeout -2) so concurrent dispatchers claim disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.fixitnow.model.OutboxStatus.PENDING " +
+           "AND e.availableAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.fixitnow.model.OutboxStatus.PROCESSED, e.processedAt = :now, " +
+           "e.lastError = null WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.availableAt = :availableAt, e.lastError = :error WHERE e.id = :id")
+    int markUndelivered(
+        @Param("id") Long id,
+        @Param("status") OutboxStatus status,
+        @Param("availableAt") LocalDateTime availableAt,
+        @Param("error") String error
+    );
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.fixitnow.model.OutboxStatus.PROCESSED AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+    
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,42 @@
+package com.fixitnow.repository;
+
+import com.fixitnow.model.ProviderBookingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProviderBookingStatsRepository extends JpaRepository<ProviderBookingStats, Long> {
+    
+    // Applied in place so concurrent booking writes for the same provider never overwrite each other
+    @Modifying
+    @Query("UPDATE ProviderBookingStats s SET s.pendingCount = s.pendingCount + :pending, " +
+           "s.confirmedCount = s.confirmedCount + :confirmed, s.completedCount = s.completedCount + :completed, " +
+           "s.cancelledCount = s.cancelledCount + :cancelled, s.expiredCount = s.expiredCount + :expired, " +
+           "s.earnings = s.earnings + :earnings " +
+           "WHERE s.providerId = :providerId")
+    int addDeltas(
+        @Param("providerId") Long providerId,
+        @Param("pending") long pending,
+        @Param("confirmed") long confirmed,
+        @Param("completed") long completed,
+        @Param("cancelled") long cancelled,
+        @Param("expired") long expired,
+        @Param("earnings") BigDecimal earnings
+    );
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProviderBookingStats s WHERE s.providerId = :providerId")
+    Optional<ProviderBookingStats> findForUpdate(@Param("providerId") Long providerId);
+    
+    @Query("SELECT s.providerId FROM ProviderBookingStats s")
+    List<Long> findAllProviderIds();
+}
@@ -22,6 +22,8 @@ public interface ProviderProfileRepository extends JpaRepository<ProviderProfile
     @Query("SELECT p FROM ProviderProfile p WHERE p.serviceArea LIKE %:location%")
     List<ProviderProfile> findByServiceAreaContaining(@Param("location") String location);
     
+    List<ProviderProfile> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+    
     @Query("SELECT p FROM ProviderProfile p WHERE p.available = true AND p.serviceCategory.id = :categoryId")
     List<ProviderProfile> findAvailableProvidersByCategory(@Param("categoryId") Long categoryId);
 }
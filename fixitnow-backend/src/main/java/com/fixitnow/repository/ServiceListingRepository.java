@@ -1,29 +1,60 @@
 package com.fixitnow.repository;
 
+import com.fixitnow.model.PricingType;
 import com.fixitnow.model.ServiceListing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ServiceListingRepository extends JpaRepository<ServiceListing, Long>, JpaSpecificationExecutor<ServiceListing> {
     
-    List<ServiceListing> findByProviderProfileIdAndActiveTrue(Long providerProfileId);
-    
     List<ServiceListing> findByProviderProfileId(Long providerProfileId);
     
-    Page<ServiceListing> findByActiveTrue(Pageable pageable);
+    // Id-only browse queries; the page's DTOs are then loaded with findRowsByIdIn and the collection loaders
+    @Query("SELECT s.id FROM ServiceListing s WHERE s.providerProfile.id = :providerProfileId AND s.active = true ORDER BY s.id")
+    List<Long> findActiveIdsByProviderProfileId(@Param("providerProfileId") Long providerProfileId);
+    
+    @Query("SELECT s.id FROM ServiceListing s WHERE s.active = true")
+    Page<Long> findActiveIds(Pageable pageable);
+    
+    @Query("SELECT s.id FROM ServiceListing s WHERE s.category.id = :categoryId AND s.active = true")
+    Page<Long> findActiveIdsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query("SELECT s.id FROM ServiceListing s WHERE s.subcategory.id = :subcategoryId AND s.active = true")
+    Page<Long> findActiveIdsBySubcategoryId(@Param("subcategoryId") Long subcategoryId, Pageable pageable);
+    
+    // One flat row per listing with its provider and category columns, in a single joined SELECT
+    @Query("SELECT s.id AS id, p.id AS providerProfileId, u.name AS providerName, p.rating AS providerRating, " +
+           "p.totalReviews AS providerTotalReviews, p.profileImageUrl AS providerImageUrl, " +
+           "c.id AS categoryId, c.name AS categoryName, sc.id AS subcategoryId, sc.name AS subcategoryName, " +
+           "s.title AS title, s.description AS description, s.price AS price, s.pricingType AS pricingType, " +
+           "s.serviceLocation AS serviceLocation, s.latitude AS latitude, s.longitude AS longitude, " +
+           "s.estimatedDuration AS estimatedDuration, s.active AS active, s.viewCount AS viewCount, " +
+           "s.bookingCount AS bookingCount, s.createdAt AS createdAt, s.updatedAt AS updatedAt " +
+           "FROM ServiceListing s JOIN s.providerProfile p JOIN p.user u JOIN s.category c LEFT JOIN s.subcategory sc " +
+           "WHERE s.id IN :ids")
+    List<ListingRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Element collections for a whole page at once
+    @Query("SELECT s.id AS listingId, i AS element FROM ServiceListing s JOIN s.imageUrls i WHERE s.id IN :ids")
+    List<ListingElement> findImageUrlsByListingIdIn(@Param("ids") Collection<Long> ids);
     
-    Page<ServiceListing> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
+    @Query("SELECT s.id AS listingId, d AS element FROM ServiceListing s JOIN s.availabilityDays d WHERE s.id IN :ids")
+    List<ListingElement> findAvailabilityDaysByListingIdIn(@Param("ids") Collection<Long> ids);
     
-    Page<ServiceListing> findBySubcategoryIdAndActiveTrue(Long subcategoryId, Pageable pageable);
+    // Walk active listings in id order (used to rebuild in-memory search structures)
+    List<ServiceListing> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
     
     @Query("SELECT s FROM ServiceListing s WHERE s.active = true " +
            "AND (:categoryId IS NULL OR s.category.id = :categoryId) " +
@@ -46,4 +77,48 @@ public interface ServiceListingRepository extends JpaRepository<ServiceListing,
     Page<ServiceListing> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
     long countByProviderProfileId(Long providerProfileId);
+    
+    List<ServiceListing> findByActivityScoreIsNull(Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE ServiceListing s SET s.activityScore = :activity WHERE s.id = :id")
+    int setActivity(@Param("id") Long id, @Param("activity") double activity);
+    
+    // Log-scale add: ln(e^score + e^delta), computed without overflow
+    @Modifying
+    @Query("UPDATE ServiceListing s SET s.activityScore = CASE WHEN s.activityScore IS NULL THEN :delta " +
+           "ELSE GREATEST(s.activityScore, :delta) + LN(1 + EXP(-ABS(s.activityScore - :delta))) END " +
+           "WHERE s.id = :id")
+    int addActivity(@Param("id") Long id, @Param("delta") double delta);
+    
+    interface ListingRow {
+        Long getId();
+        Long getProviderProfileId();
+        String getProviderName();
+        BigDecimal getProviderRating();
+        Integer getProviderTotalReviews();
+        String getProviderImageUrl();
+        Long getCategoryId();
+        String getCategoryName();
+        Long getSubcategoryId();
+        String getSubcategoryName();
+        String getTitle();
+        String getDescription();
+        BigDecimal getPrice();
+        PricingType getPricingType();
+        String getServiceLocation();
+        Double getLatitude();
+        Double getLongitude();
+        String getEstimatedDuration();
+        Boolean getActive();
+        Integer getViewCount();
+        Integer getBookingCount();
+        Instant getCreatedAt();
+        Instant getUpdatedAt();
+    }
+    
+    interface ListingElement {
+        Long getListingId();
+        String getElement();
+    }
 }
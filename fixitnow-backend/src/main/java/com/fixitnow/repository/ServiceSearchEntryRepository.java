@@ -0,0 +1,65 @@
+package com.fixitnow.repository;
+
+import com.fixitnow.model.ServiceSearchEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+public interface ServiceSearchEntryRepository extends JpaRepository<ServiceSearchEntry, Long>, JpaSpecificationExecutor<ServiceSearchEntry> {
+    
+    // Propagate provider rating/verification changes to all of the provider's listings
+    @Modifying
+    @Query("UPDATE ServiceSearchEntry e SET e.providerRating = :rating, e.providerTotalReviews = :totalReviews, " +
+           "e.providerVerified = :verified, " +
+           "e.popularityScore = (SELECT s.activityScore FROM ServiceListing s WHERE s.id = e.id) + LN(1 + :rating / 5) " +
+           "WHERE e.providerProfileId = :providerProfileId")
+    int updateProvider(
+        @Param("providerProfileId") Long providerProfileId,
+        @Param("rating") BigDecimal rating,
+        @Param("totalReviews") Integer totalReviews,
+        @Param("verified") boolean verified
+    );
+    
+    @Modifying
+    @Query("UPDATE ServiceSearchEntry e SET e.categoryName = :name WHERE e.categoryId = :categoryId")
+    int renameCategory(@Param("categoryId") Long categoryId, @Param("name") String name);
+    
+    @Modifying
+    @Query("UPDATE ServiceSearchEntry e SET e.subcategoryName = :name WHERE e.subcategoryId = :subcategoryId")
+    int renameSubcategory(@Param("subcategoryId") Long subcategoryId, @Param("name") String name);
+    
+    // Log-scale add of a new event, with the row's rating boost applied to the event as well
+    @Modifying
+    @Query("UPDATE ServiceSearchEntry e SET e.popularityScore = CASE WHEN e.popularityScore IS NULL " +
+           "THEN :delta + LN(1 + COALESCE(e.providerRating, 0) / 5) " +
+           "ELSE GREATEST(e.popularityScore, :delta + LN(1 + COALESCE(e.providerRating, 0) / 5)) " +
+           "+ LN(1 + EXP(-ABS(e.popularityScore - :delta - LN(1 + COALESCE(e.providerRating, 0) / 5)))) END " +
+           "WHERE e.id = :id")
+    int addActivity(@Param("id") Long id, @Param("delta") double delta);
+    
+    @Modifying
+    @Query("UPDATE ServiceSearchEntry e SET e.popularityScore = " +
+           "(SELECT s.activityScore FROM ServiceListing s WHERE s.id = e.id) + LN(1 + COALESCE(e.providerRating, 0) / 5) " +
+           "WHERE e.id IN :ids AND e.popularityScore IS NULL")
+    int backfillPopularity(@Param("ids") Collection<Long> ids);
+    
+    // Backfill rows for active listings that have no entry yet (e.g. listings created before the view existed)
+    @Modifying
+    @Query("INSERT INTO ServiceSearchEntry (id, providerProfileId, providerRating, providerTotalReviews, providerVerified, " +
+           "categoryId, categoryName, subcategoryId, subcategoryName, title, price, pricingType, serviceLocation, " +
+           "latitude, longitude, viewCount, bookingCount, popularityScore, createdAt) " +
+           "SELECT s.id, p.id, COALESCE(p.rating, 0), COALESCE(p.totalReviews, 0), p.verified, " +
+           "c.id, c.name, sc.id, sc.name, s.title, s.price, s.pricingType, s.serviceLocation, " +
+           "s.latitude, s.longitude, COALESCE(s.viewCount, 0), COALESCE(s.bookingCount, 0), " +
+           "s.activityScore + LN(1 + COALESCE(p.rating, 0) / 5), s.createdAt " +
+           "FROM ServiceListing s JOIN s.providerProfile p JOIN s.category c LEFT JOIN s.subcategory sc " +
+           "WHERE s.active = true AND NOT EXISTS (SELECT 1 FROM ServiceSearchEntry e WHERE e.id = s.id)")
+    int backfillMissing();
+}
@@ -3,6 +3,9 @@ package com.fixitnow.repository;
 import com.fixitnow.model.Role;
 import com.fixitnow.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByRole(Role role);
     long countByRole(Role role);
     List<User> findByRole(Role role);
+    Optional<User> findByCalendarToken(String calendarToken);
+
+    @Modifying
+    @Query("UPDATE User u SET u.calendarToken = :token WHERE u.id = :id")
+    int setCalendarToken(@Param("id") Long id, @Param("token") String token);
+
+    @Modifying
+    @Query("UPDATE User u SET u.chatUnreadCount = CASE WHEN u.chatUnreadCount + :delta > 0 " +
+           "THEN u.chatUnreadCount + :delta ELSE 0 END WHERE u.id = :id")
+    int addChatUnread(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("SELECT u.chatUnreadCount FROM User u WHERE u.id = :id")
+    Optional<Integer> findChatUnreadCount(@Param("id") Long id);
 }
@@ -0,0 +1,135 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.BookingStatus;
+import com.fixitnow.repository.ArchivedBookingRepository;
+import com.fixitnow.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves COMPLETED, CANCELLED and EXPIRED bookings older than booking.archive.age-days from bookings
+ * into bookings_archive, keeping the live table and its indexes down to recent and active bookings.
+ * Each chunk is an INSERT ... SELECT and a DELETE in one transaction, so a booking is always in
+ * exactly one of the two tables. Runs on one node at a time under a job lease.
+ *
+ * Bookings with a chat room are not archived: chat_rooms.booking_id references bookings, and the
+ * conversation stays reachable from the booking. Each run counts the finished bookings held back
+ * this way (heldBackWithChatRoom in the stats), so their share of the live table stays visible.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingArchiveJob {
+
+    static final String LEASE_NAME = "booking-archive";
+
+    private static final List<BookingStatus> FINISHED_STATUSES =
+        List.of(BookingStatus.COMPLETED, BookingStatus.CANCELLED, BookingStatus.EXPIRED);
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.archive.age-days:180}")
+    private int ageDays;
+
+    @Value("${booking.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.archive.lease-seconds:600}")
+    private long leaseSeconds;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder runMillis = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunArchived;
+    private volatile long lastRunMillis;
+    private volatile long heldBackWithChatRoom;
+
+    @Scheduled(initialDelayString = "${booking.archive.initial-delay-ms:120000}",
+               fixedDelayString = "${booking.archive.interval-ms:3600000}")
+    public void run() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!jobLeaseService.tryAcquire(LEASE_NAME, lease)) {
+            skippedRuns.increment();
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        long archivedThisRun = 0;
+        try {
+            LocalDateTime cutoff = LocalDate.now().minusDays(ageDays).atStartOfDay();
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                chunks.increment();
+                archivedThisRun += moved;
+                archived.add(moved);
+                // Each chunk renews the lease; stop if another node has taken it over meanwhile
+            } while (moved == chunkSize && jobLeaseService.tryAcquire(LEASE_NAME, lease));
+            heldBackWithChatRoom = bookingRepository.countFinishedWithChatRoom(FINISHED_STATUSES, cutoff);
+        } catch (RuntimeException e) {
+            failedRuns.increment();
+            log.error("Booking archive run failed after archiving {} bookings", archivedThisRun, e);
+        } finally {
+            jobLeaseService.release(LEASE_NAME);
+            long elapsed = System.currentTimeMillis() - started;
+            runs.increment();
+            runMillis.add(elapsed);
+            lastRunAt = LocalDateTime.now();
+            lastRunArchived = archivedThisRun;
+            lastRunMillis = elapsed;
+        }
+        if (archivedThisRun > 0) {
+            log.info("Archived {} finished bookings in {} ms", archivedThisRun, lastRunMillis);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.sum());
+        stats.put("skippedRuns", skippedRuns.sum());
+        stats.put("failedRuns", failedRuns.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("archivedTotal", archived.sum());
+        stats.put("runMillisTotal", runMillis.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("heldBackWithChatRoom", heldBackWithChatRoom);
+        stats.put("ageDays", ageDays);
+        stats.put("chunkSize", chunkSize);
+        return stats;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = bookingRepository.findArchivableIds(FINISHED_STATUSES, cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Finished bookings accept no further changes, so the selected rows cannot move under us
+        int copied = archivedBookingRepository.copyFromBookings(ids, LocalDateTime.now());
+        int deleted = bookingRepository.deleteByIdIn(ids);
+        if (copied != ids.size() || deleted != ids.size()) {
+            throw new IllegalStateException("Archived " + copied + " and deleted " + deleted
+                + " of " + ids.size() + " bookings; rolling back the chunk");
+        }
+        return ids.size();
+    }
+}
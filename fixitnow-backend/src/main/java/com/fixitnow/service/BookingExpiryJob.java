@@ -0,0 +1,158 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingStatusChangedEvent;
+import com.fixitnow.model.BookingStatus;
+import com.fixitnow.repository.BookingRepository;
+import com.fixitnow.repository.BookingRepository.ExpiringBooking;
+import com.fixitnow.repository.BookingSlotClaimRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves PENDING bookings whose date has passed to EXPIRED, so they leave the provider schedules,
+ * slot claims and upcoming-booking queries. Runs on one node at a time under a job lease and works
+ * in chunks of booking.expiry.chunk-size, each a single set-based UPDATE in its own transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExpiryJob {
+
+    static final String LEASE_NAME = "booking-expiry";
+
+    private final BookingRepository bookingRepository;
+    private final BookingSlotClaimRepository slotClaimRepository;
+    private final BookingScheduleIndex scheduleIndex;
+    private final ProviderStatsService providerStatsService;
+    private final OutboxService outboxService;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.expiry.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder runMillis = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunExpired;
+    private volatile long lastRunMillis;
+
+    @Scheduled(initialDelayString = "${booking.expiry.initial-delay-ms:30000}",
+               fixedDelayString = "${booking.expiry.interval-ms:300000}")
+    public void run() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!jobLeaseService.tryAcquire(LEASE_NAME, lease)) {
+            skippedRuns.increment();
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        long expiredThisRun = 0;
+        try {
+            // Whole days only: a booking later today may still be confirmed before its slot
+            LocalDateTime cutoff = LocalDate.now().atStartOfDay();
+            ChunkResult chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> expireChunk(cutoff));
+                chunks.increment();
+                expiredThisRun += chunk.expired();
+                expired.add(chunk.expired());
+                // Each chunk renews the lease; stop if another node has taken it over meanwhile
+            } while (chunk.selected() == chunkSize && jobLeaseService.tryAcquire(LEASE_NAME, lease));
+        } catch (RuntimeException e) {
+            failedRuns.increment();
+            log.error("Booking expiry run failed after expiring {} bookings", expiredThisRun, e);
+        } finally {
+            jobLeaseService.release(LEASE_NAME);
+            long elapsed = System.currentTimeMillis() - started;
+            runs.increment();
+            runMillis.add(elapsed);
+            lastRunAt = LocalDateTime.now();
+            lastRunExpired = expiredThisRun;
+            lastRunMillis = elapsed;
+        }
+        if (expiredThisRun > 0) {
+            log.info("Expired {} stale pending bookings in {} ms", expiredThisRun, lastRunMillis);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.sum());
+        stats.put("skippedRuns", skippedRuns.sum());
+        stats.put("failedRuns", failedRuns.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("expiredTotal", expired.sum());
+        stats.put("runMillisTotal", runMillis.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunExpired", lastRunExpired);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("chunkSize", chunkSize);
+        return stats;
+    }
+
+    private ChunkResult expireChunk(LocalDateTime cutoff) {
+        List<ExpiringBooking> candidates = bookingRepository.findPendingBefore(cutoff, PageRequest.of(0, chunkSize));
+        if (candidates.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+        List<Long> ids = candidates.stream().map(ExpiringBooking::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = bookingRepository.expirePending(ids, now);
+        // Fewer rows means some were confirmed or cancelled since the select; within this
+        // transaction only the rows updated above read as EXPIRED
+        Set<Long> expiredIds = updated == ids.size()
+            ? new HashSet<>(ids)
+            : new HashSet<>(bookingRepository.findIdsByIdInAndStatus(ids, BookingStatus.EXPIRED));
+        if (expiredIds.isEmpty()) {
+            return new ChunkResult(candidates.size(), 0);
+        }
+        slotClaimRepository.deleteByBookingIdIn(expiredIds);
+
+        // Sorted, so counter rows are locked in the same order by every chunk
+        Map<Long, Long> expiredByProvider = new TreeMap<>();
+        for (ExpiringBooking booking : candidates) {
+            if (!expiredIds.contains(booking.getId())) {
+                continue;
+            }
+            expiredByProvider.merge(booking.getProviderId(), 1L, Long::sum);
+            scheduleIndex.release(booking.getProviderId(), booking.getId(),
+                BookingInterval.of(booking.getBookingDate(), booking.getTimeSlot(), booking.getDurationHours()));
+            outboxService.publish(booking.getId(), BookingStatusChangedEvent.builder()
+                .bookingId(booking.getId())
+                .serviceListingId(booking.getServiceListingId())
+                .customerId(booking.getCustomerId())
+                .customerEmail(booking.getCustomerEmail())
+                .providerId(booking.getProviderId())
+                .providerEmail(booking.getProviderEmail())
+                .previousStatus(BookingStatus.PENDING)
+                .status(BookingStatus.EXPIRED)
+                .occurredAt(now)
+                .build());
+        }
+        expiredByProvider.forEach(providerStatsService::recordExpired);
+        return new ChunkResult(candidates.size(), expiredIds.size());
+    }
+
+    private record ChunkResult(int selected, int expired) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.fixitnow.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The [start, end) period a booking occupies, parsed from its date, time slot and duration.
+ *
+ * A "09:00-12:00" slot is taken on the booking's date (an end at or before the start runs into the
+ * next day). A slot holding only a start time ("09:00"), or none that parses, starts there or at the
+ * booking's own time and lasts durationHours, defaulting to one hour.
+ *
+ * New bookings must start and end on a SLOT_LENGTH boundary, so that bookings which only touch
+ * never share a slot in booking_slot_claims.
+ */
+public record BookingInterval(LocalDateTime start, LocalDateTime end) {
+
+    public static final Duration SLOT_LENGTH = Duration.ofMinutes(15);
+
+    private static final Pattern RANGE = Pattern.compile("^\\s*(\\d{1,2}):(\\d{2})\\s*-\\s*(\\d{1,2}):(\\d{2})\\s*$");
+    private static final Pattern SINGLE = Pattern.compile("^\\s*(\\d{1,2}):(\\d{2})\\s*$");
+
+    public static BookingInterval of(LocalDateTime bookingDate, String timeSlot, Integer durationHours) {
+        int hours = durationHours != null && durationHours > 0 ? durationHours : 1;
+        if (timeSlot != null) {
+            Matcher range = RANGE.matcher(timeSlot);
+            if (range.matches()) {
+                LocalTime from = time(range.group(1), range.group(2));
+                LocalTime to = time(range.group(3), range.group(4));
+                if (from != null && to != null) {
+                    LocalDateTime start = bookingDate.toLocalDate().atTime(from);
+                    LocalDateTime end = bookingDate.toLocalDate().atTime(to);
+                    return new BookingInterval(start, end.isAfter(start) ? end : end.plusDays(1));
+                }
+            }
+            Matcher single = SINGLE.matcher(timeSlot);
+            if (single.matches()) {
+                LocalTime from = time(single.group(1), single.group(2));
+                if (from != null) {
+                    LocalDateTime start = bookingDate.toLocalDate().atTime(from);
+                    return new BookingInterval(start, start.plusHours(hours));
+                }
+            }
+        }
+        return new BookingInterval(bookingDate, bookingDate.plusHours(hours));
+    }
+
+    public Duration length() {
+        return Duration.between(start, end);
+    }
+
+    public boolean isAligned() {
+        long step = SLOT_LENGTH.toSeconds();
+        return start.getNano() == 0 && end.getNano() == 0
+            && Math.floorMod(startSeconds(), step) == 0 && Math.floorMod(endSeconds(), step) == 0;
+    }
+
+    /**
+     * Starts of the slots (aligned to the epoch) this interval touches. For an aligned interval these
+     * are exactly the slots it covers; an unaligned one also holds the slots it only partly covers.
+     */
+    public List<LocalDateTime> slotStarts() {
+        long step = SLOT_LENGTH.toSeconds();
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (long slot = floorToSlot(startSeconds()); slot < endSeconds(); slot += step) {
+            slots.add(fromSeconds(slot));
+        }
+        return slots;
+    }
+
+    static long floorToSlot(long seconds) {
+        long step = SLOT_LENGTH.toSeconds();
+        return Math.floorDiv(seconds, step) * step;
+    }
+
+    static long ceilToSlot(long seconds) {
+        long step = SLOT_LENGTH.toSeconds();
+        return Math.ceilDiv(seconds, step) * step;
+    }
+
+    long startSeconds() {
+        return start.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    long endSeconds() {
+        return end.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalTime time(String hour, String minute) {
+        int h = Integer.parseInt(hour);
+        int m = Integer.parseInt(minute);
+        if (h == 24 && m == 0) {
+            return LocalTime.MIDNIGHT; // "22:00-24:00" ends at the next midnight
+        }
+        return h < 24 && m < 60 ? LocalTime.of(h, m) : null;
+    }
+}
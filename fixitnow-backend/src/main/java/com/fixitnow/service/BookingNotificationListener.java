@@ -0,0 +1,30 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Pushes booking creations and status changes to the other party's /user/queue/bookings.
+ * Runs from the outbox, so a notification may occasionally be repeated.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingNotificationListener {
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    
+    @EventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        String recipient = Objects.equals(event.getChangedBy(), event.getCustomerId())
+            ? event.getProviderEmail()
+            : event.getCustomerEmail();
+        if (recipient != null) {
+            messagingTemplate.convertAndSendToUser(recipient, "/queue/bookings", event);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.BookingStatus;
+import com.fixitnow.repository.BookingRepository;
+import com.fixitnow.repository.BookingRepository.BookingSlot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-provider interval trees of the periods held by PENDING and CONFIRMED bookings, used for
+ * overlap checks on new bookings and to compute a provider's free windows. Bookings that ended
+ * before yesterday are not loaded, since nothing can be booked against them any more.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingScheduleIndex {
+
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+
+    // Provider user id -> schedule; each tree is guarded by its own monitor
+    private final Map<Long, IntervalTree> schedules = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        List<BookingSlot> slots = bookingRepository.findSlotsByStatusInAndBookingDateAfter(
+                ACTIVE_STATUSES, LocalDate.now().minusDays(1).atStartOfDay());
+        schedules.clear();
+        for (BookingSlot slot : slots) {
+            BookingInterval interval = BookingInterval.of(slot.getBookingDate(), slot.getTimeSlot(), slot.getDurationHours());
+            IntervalTree schedule = schedule(slot.getProviderId());
+            synchronized (schedule) {
+                schedule.insert(slot.getId(), interval.startSeconds(), interval.endSeconds());
+            }
+        }
+        log.info("Booking schedule index built: {} bookings for {} providers in {} ms",
+                slots.size(), schedules.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Adds the booking to the provider's schedule unless it overlaps an existing booking. The
+     * reservation is undone if the surrounding transaction rolls back.
+     */
+    public boolean tryReserve(Long providerId, Long bookingId, BookingInterval interval) {
+        IntervalTree schedule = schedule(providerId);
+        synchronized (schedule) {
+            if (schedule.overlaps(interval.startSeconds(), interval.endSeconds())) {
+                return false;
+            }
+            schedule.insert(bookingId, interval.startSeconds(), interval.endSeconds());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(providerId, bookingId, interval);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Frees the booking's period once the surrounding transaction commits (immediately without one).
+     */
+    public void release(Long providerId, Long bookingId, BookingInterval interval) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(providerId, bookingId, interval);
+                }
+            });
+        } else {
+            remove(providerId, bookingId, interval);
+        }
+    }
+
+    public boolean isFree(Long providerId, BookingInterval interval) {
+        IntervalTree schedule = schedules.get(providerId);
+        if (schedule == null) {
+            return true;
+        }
+        synchronized (schedule) {
+            return !schedule.overlaps(interval.startSeconds(), interval.endSeconds());
+        }
+    }
+
+    /**
+     * The gaps between the provider's bookings within [from, to), in order, shrunk to whole slots so
+     * that every window can be booked as advertised.
+     */
+    public List<BookingInterval> freeWindows(Long providerId, LocalDateTime from, LocalDateTime to) {
+        BookingInterval range = new BookingInterval(from, to);
+        List<IntervalTree.Interval> busy = new ArrayList<>();
+        IntervalTree schedule = schedules.get(providerId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.collect(range.startSeconds(), range.endSeconds(), busy);
+            }
+        }
+
+        List<BookingInterval> free = new ArrayList<>();
+        long cursor = BookingInterval.ceilToSlot(range.startSeconds());
+        for (IntervalTree.Interval interval : busy) {
+            addWindow(free, cursor, BookingInterval.floorToSlot(interval.start()));
+            cursor = Math.max(cursor, BookingInterval.ceilToSlot(interval.end()));
+        }
+        addWindow(free, cursor, BookingInterval.floorToSlot(range.endSeconds()));
+        return free;
+    }
+
+    /**
+     * How many of the provider's bookings start at or after the given time.
+     */
+    public int countUpcoming(Long providerId, LocalDateTime from) {
+        IntervalTree schedule = schedules.get(providerId);
+        if (schedule == null) {
+            return 0;
+        }
+        long start = new BookingInterval(from, from).startSeconds();
+        List<IntervalTree.Interval> upcoming = new ArrayList<>();
+        synchronized (schedule) {
+            schedule.collect(start, Long.MAX_VALUE, upcoming);
+        }
+        // Bookings already under way overlap the range too
+        return (int) upcoming.stream().filter(interval -> interval.start() >= start).count();
+    }
+    
+    private static void addWindow(List<BookingInterval> free, long start, long end) {
+        if (start < end) {
+            free.add(new BookingInterval(BookingInterval.fromSeconds(start), BookingInterval.fromSeconds(end)));
+        }
+    }
+
+    private void remove(Long providerId, Long bookingId, BookingInterval interval) {
+        IntervalTree schedule = schedules.get(providerId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.remove(bookingId, interval.startSeconds());
+            }
+        }
+    }
+
+    private IntervalTree schedule(Long providerId) {
+        return schedules.computeIfAbsent(providerId, id -> new IntervalTree());
+    }
+}
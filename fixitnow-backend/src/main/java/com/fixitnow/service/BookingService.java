@@ -2,32 +2,99 @@ package com.fixitnow.service;
 
 import com.fixitnow.dto.BookingRequest;
 import com.fixitnow.dto.BookingResponse;
+import com.fixitnow.dto.BookingStatusChangedEvent;
 import com.fixitnow.dto.BookingStatusUpdate;
+import com.fixitnow.dto.ProviderAvailabilityDTO;
+import com.fixitnow.dto.RecurringBookingRequest;
+import com.fixitnow.dto.RecurringBookingResponse;
+import com.fixitnow.dto.TimeWindowDTO;
 import com.fixitnow.model.*;
+import com.fixitnow.repository.ArchivedBookingRepository;
 import com.fixitnow.repository.BookingRepository;
+import com.fixitnow.repository.BookingSlotClaimRepository;
+import com.fixitnow.repository.ProviderProfileRepository;
 import com.fixitnow.repository.ServiceListingRepository;
 import com.fixitnow.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BookingService {
     
+    private static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_BOOKING_LENGTH = Duration.ofDays(7);
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+    private static final int MAX_OCCURRENCES = 100;
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+    
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ServiceListingRepository serviceListingRepository;
     private final UserRepository userRepository;
+    private final ListingCounterService listingCounterService;
+    private final PopularityUpdater popularityUpdater;
+    private final ProviderProfileRepository providerProfileRepository;
+    private final BookingScheduleIndex scheduleIndex;
+    private final BookingSlotClaimRepository slotClaimRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final ProviderStatsService providerStatsService;
     
-    @Transactional
+    /**
+     * Creates a booking in its own transaction, retrying when it loses a deadlock or lock wait
+     * against a concurrent booking for the same provider.
+     */
     public BookingResponse createBooking(Long customerId, BookingRequest request) {
+        return inTransactionWithRetry(() -> insertBooking(customerId, request));
+    }
+    
+    /**
+     * Expands the recurrence and books every occurrence in one transaction: one query checks all of
+     * them for conflicts and the rows go out as batched inserts. With allOrNothing off, occurrences
+     * that conflict are skipped instead of failing the request.
+     */
+    public RecurringBookingResponse createRecurringBookings(Long customerId, RecurringBookingRequest request) {
+        return inTransactionWithRetry(() -> insertRecurringBookings(customerId, request));
+    }
+    
+    private <T> T inTransactionWithRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_CREATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Retrying booking creation after {} (attempt {})", e.getClass().getSimpleName(), attempt);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private BookingResponse insertBooking(Long customerId, BookingRequest request) {
         // Validate service listing
         ServiceListing serviceListing = serviceListingRepository.findById(request.getServiceListingId())
             .orElseThrow(() -> new RuntimeException("Service listing not found"));
@@ -43,14 +110,11 @@ public class BookingService {
         // Get provider from service listing
         User provider = serviceListing.getProviderProfile().getUser();
         
-        // Check for conflicting bookings
-        boolean hasConflict = bookingRepository.existsConflictingBooking(
-            provider.getId(),
-            request.getBookingDate(),
-            request.getTimeSlot()
-        );
-        
-        if (hasConflict) {
+        // Check for overlapping bookings
+        BookingInterval interval = BookingInterval.of(
+            request.getBookingDate(), request.getTimeSlot(), request.getDurationHours());
+        validateInterval(interval);
+        if (!scheduleIndex.isFree(provider.getId(), interval)) {
             throw new RuntimeException("Provider is not available for the selected time slot");
         }
         
@@ -70,16 +134,184 @@ public class BookingService {
         
         booking = bookingRepository.save(booking);
         
+        // Re-checked atomically with the insert into the schedule; a concurrent booking may have won
+        if (!scheduleIndex.tryReserve(provider.getId(), booking.getId(), interval)) {
+            throw new RuntimeException("Provider is not available for the selected time slot");
+        }
+        
+        // Database guard for the same overlap (other nodes, bookings outside the in-memory schedule)
+        claimSlots(provider.getId(), List.of(booking), List.of(interval));
+        
         // Increment booking count for service listing
-        serviceListing.setBookingCount(serviceListing.getBookingCount() + 1);
-        serviceListingRepository.save(serviceListing);
+        countBookings(serviceListing, 1);
+        providerStatsService.recordCreated(provider.getId(), 1);
+        publishStatusChange(booking, null, customerId);
         
         return convertToResponse(booking);
     }
     
+    private RecurringBookingResponse insertRecurringBookings(Long customerId, RecurringBookingRequest request) {
+        ServiceListing serviceListing = serviceListingRepository.findById(request.getServiceListingId())
+            .orElseThrow(() -> new RuntimeException("Service listing not found"));
+        
+        if (!serviceListing.isActive()) {
+            throw new RuntimeException("Service is not available for booking");
+        }
+        
+        User customer = userRepository.findById(customerId)
+            .orElseThrow(() -> new RuntimeException("Customer not found"));
+        User provider = serviceListing.getProviderProfile().getUser();
+        
+        List<LocalDateTime> dates = expandRecurrence(request);
+        List<BookingInterval> intervals = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            BookingInterval interval = BookingInterval.of(date, request.getTimeSlot(), request.getDurationHours());
+            validateInterval(interval);
+            intervals.add(interval);
+        }
+        
+        // One query for every active booking that could touch the recurrence. A booking's period starts
+        // on its booking date and lasts at most MAX_BOOKING_LENGTH, which bounds the date range.
+        LocalDateTime firstStart = intervals.get(0).start();
+        LocalDateTime lastEnd = intervals.get(intervals.size() - 1).end();
+        IntervalTree taken = new IntervalTree();
+        for (BookingRepository.BookingSlot slot : bookingRepository.findSlotsForProvider(provider.getId(), ACTIVE_STATUSES,
+                firstStart.minus(MAX_BOOKING_LENGTH).minusDays(1), lastEnd.plusDays(1))) {
+            BookingInterval existing = BookingInterval.of(slot.getBookingDate(), slot.getTimeSlot(), slot.getDurationHours());
+            taken.insert(slot.getId(), existing.startSeconds(), existing.endSeconds());
+        }
+        
+        boolean allOrNothing = !Boolean.FALSE.equals(request.getAllOrNothing());
+        List<Booking> bookings = new ArrayList<>();
+        List<BookingInterval> booked = new ArrayList<>();
+        List<LocalDateTime> skippedDates = new ArrayList<>();
+        for (int i = 0; i < dates.size(); i++) {
+            BookingInterval interval = intervals.get(i);
+            if (taken.overlaps(interval.startSeconds(), interval.endSeconds())) {
+                if (allOrNothing) {
+                    throw new RuntimeException("Provider is not available for the occurrence on " + dates.get(i));
+                }
+                skippedDates.add(dates.get(i));
+                continue;
+            }
+            // Occurrences can also overlap each other (e.g. daily bookings longer than a day)
+            taken.insert(-(i + 1), interval.startSeconds(), interval.endSeconds());
+            bookings.add(Booking.builder()
+                .serviceListing(serviceListing)
+                .customer(customer)
+                .provider(provider)
+                .bookingDate(dates.get(i))
+                .timeSlot(request.getTimeSlot())
+                .durationHours(request.getDurationHours())
+                .totalPrice(request.getTotalPrice())
+                .serviceLocation(request.getServiceLocation())
+                .customerNotes(request.getCustomerNotes())
+                .status(BookingStatus.PENDING)
+                .build());
+            booked.add(interval);
+        }
+        if (bookings.isEmpty()) {
+            throw new RuntimeException("Provider is not available for any of the requested dates");
+        }
+        
+        // Ids come from the pooled sequence, so the inserts are batched when claimSlots flushes
+        bookings = bookingRepository.saveAll(bookings);
+        for (int i = 0; i < bookings.size(); i++) {
+            if (!scheduleIndex.tryReserve(provider.getId(), bookings.get(i).getId(), booked.get(i))) {
+                // A concurrent booking took the slot after the conflict query; the client can retry
+                throw new RuntimeException("Provider is not available for the occurrence on " + bookings.get(i).getBookingDate());
+            }
+        }
+        claimSlots(provider.getId(), bookings, booked);
+        countBookings(serviceListing, bookings.size());
+        providerStatsService.recordCreated(provider.getId(), bookings.size());
+        bookings.forEach(booking -> publishStatusChange(booking, null, customerId));
+        
+        return RecurringBookingResponse.builder()
+            .bookings(bookings.stream().map(this::convertToResponse).collect(Collectors.toList()))
+            .skippedDates(skippedDates)
+            .build();
+    }
+    
+    private List<LocalDateTime> expandRecurrence(RecurringBookingRequest request) {
+        if (request.getOccurrences() == null && request.getUntil() == null) {
+            throw new RuntimeException("Either occurrences or until is required");
+        }
+        int step = request.getInterval() != null && request.getInterval() > 0 ? request.getInterval() : 1;
+        // One past the cap, so an over-long recurrence is rejected rather than silently cut short
+        int limit = Math.min(request.getOccurrences() != null ? request.getOccurrences() : Integer.MAX_VALUE, MAX_OCCURRENCES + 1);
+        
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            LocalDateTime date = switch (request.getFrequency()) {
+                case DAILY -> request.getBookingDate().plusDays((long) i * step);
+                case WEEKLY -> request.getBookingDate().plusWeeks((long) i * step);
+                case MONTHLY -> request.getBookingDate().plusMonths((long) i * step);
+            };
+            if (request.getUntil() != null && date.isAfter(request.getUntil())) {
+                break;
+            }
+            dates.add(date);
+        }
+        if (dates.isEmpty()) {
+            throw new RuntimeException("The recurrence has no occurrences");
+        }
+        if (dates.size() > MAX_OCCURRENCES) {
+            throw new RuntimeException("A recurrence cannot have more than " + MAX_OCCURRENCES + " occurrences");
+        }
+        return dates;
+    }
+    
+    private void validateInterval(BookingInterval interval) {
+        if (interval.length().compareTo(MAX_BOOKING_LENGTH) > 0) {
+            throw new RuntimeException("Booking cannot span more than " + MAX_BOOKING_LENGTH.toDays() + " days");
+        }
+        // Claims are whole slots, so an unaligned booking would also block the neighbouring bookings
+        // that only touch it
+        if (!interval.isAligned()) {
+            throw new RuntimeException("Bookings must start and end on the quarter hour (:00, :15, :30 or :45)");
+        }
+    }
+    
+    // Inserts the bookings' slot claims in one batched flush; the primary key rejects any overlap
+    private void claimSlots(Long providerId, List<Booking> bookings, List<BookingInterval> intervals) {
+        List<BookingSlotClaim> claims = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            Long bookingId = bookings.get(i).getId();
+            for (LocalDateTime slot : intervals.get(i).slotStarts()) {
+                claims.add(new BookingSlotClaim(providerId, slot, bookingId));
+            }
+        }
+        try {
+            slotClaimRepository.saveAllAndFlush(claims);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Provider is not available for the selected time slot");
+        }
+    }
+    
+    private void publishStatusChange(Booking booking, BookingStatus previousStatus, Long changedBy) {
+        outboxService.publish(booking.getId(), BookingStatusChangedEvent.builder()
+            .bookingId(booking.getId())
+            .serviceListingId(booking.getServiceListing().getId())
+            .customerId(booking.getCustomer().getId())
+            .customerEmail(booking.getCustomer().getEmail())
+            .providerId(booking.getProvider().getId())
+            .providerEmail(booking.getProvider().getEmail())
+            .previousStatus(previousStatus)
+            .status(booking.getStatus())
+            .changedBy(changedBy)
+            .occurredAt(LocalDateTime.now())
+            .build());
+    }
+    
+    private void countBookings(ServiceListing serviceListing, int count) {
+        listingCounterService.recordBookings(serviceListing.getId(), count);
+        popularityUpdater.recordBookings(serviceListing.getId(), count);
+    }
+    
     @Transactional
     public BookingResponse updateBookingStatus(Long bookingId, Long userId, BookingStatusUpdate update) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
             .orElseThrow(() -> new RuntimeException("Booking not found"));
         
         // Verify user is either customer or provider
@@ -113,66 +345,111 @@ public class BookingService {
         }
         
         booking = bookingRepository.save(booking);
+        providerStatsService.recordTransition(booking.getProvider().getId(), currentStatus, newStatus, booking.getTotalPrice());
+        
+        if (newStatus == BookingStatus.CANCELLED || newStatus == BookingStatus.COMPLETED) {
+            slotClaimRepository.deleteByBookingId(booking.getId());
+            scheduleIndex.release(booking.getProvider().getId(), booking.getId(),
+                BookingInterval.of(booking.getBookingDate(), booking.getTimeSlot(), booking.getDurationHours()));
+        }
+        
+        // Reactions (notifications etc.) run from the outbox after commit, not in this request
+        publishStatusChange(booking, currentStatus, userId);
         
         return convertToResponse(booking);
     }
     
+    @Transactional(readOnly = true)
+    public ProviderAvailabilityDTO getProviderAvailability(Long providerProfileId, LocalDateTime from, LocalDateTime to) {
+        ProviderProfile profile = providerProfileRepository.findById(providerProfileId)
+            .orElseThrow(() -> new RuntimeException("Provider not found"));
+        
+        if (!to.isAfter(from)) {
+            throw new RuntimeException("'to' must be after 'from'");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new RuntimeException("Availability range cannot exceed " + MAX_AVAILABILITY_RANGE.toDays() + " days");
+        }
+        
+        List<TimeWindowDTO> freeWindows = profile.isAvailable()
+            ? scheduleIndex.freeWindows(profile.getUser().getId(), from, to).stream()
+                .map(window -> TimeWindowDTO.builder().start(window.start()).end(window.end()).build())
+                .collect(Collectors.toList())
+            : List.of();
+        
+        return ProviderAvailabilityDTO.builder()
+            .providerProfileId(providerProfileId)
+            .available(profile.isAvailable())
+            .from(from)
+            .to(to)
+            .freeWindows(freeWindows)
+            .build();
+    }
+    
     @Transactional(readOnly = true)
     public BookingResponse getBookingById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        // Archived bookings included
+        BookingResponse booking = bookingRepository.findResponseById(bookingId)
+            .or(() -> archivedBookingRepository.findResponseById(bookingId))
             .orElseThrow(() -> new RuntimeException("Booking not found"));
         
         // Verify user has access to this booking
-        if (!booking.getCustomer().getId().equals(userId) && 
-            !booking.getProvider().getId().equals(userId)) {
+        if (!booking.getCustomerId().equals(userId) && 
+            !booking.getProviderId().equals(userId)) {
             throw new RuntimeException("Unauthorized to view this booking");
         }
         
-        return convertToResponse(booking);
+        return booking;
     }
     
     @Transactional(readOnly = true)
     public Page<BookingResponse> getCustomerBookings(Long customerId, BookingStatus status, Pageable pageable) {
-        Page<Booking> bookings;
-        
         if (status != null) {
-            bookings = bookingRepository.findByCustomerIdAndStatus(customerId, status, pageable);
-        } else {
-            bookings = bookingRepository.findByCustomerId(customerId, pageable);
+            return bookingRepository.findResponsesByCustomerIdAndStatus(customerId, status, pageable);
         }
-        
-        return bookings.map(this::convertToResponse);
+        return bookingRepository.findResponsesByCustomerId(customerId, pageable);
     }
     
     @Transactional(readOnly = true)
     public Page<BookingResponse> getProviderBookings(Long providerId, BookingStatus status, Pageable pageable) {
-        Page<Booking> bookings;
-        
         if (status != null) {
-            bookings = bookingRepository.findByProviderIdAndStatus(providerId, status, pageable);
-        } else {
-            bookings = bookingRepository.findByProviderId(providerId, pageable);
+            return bookingRepository.findResponsesByProviderIdAndStatus(providerId, status, pageable);
         }
-        
-        return bookings.map(this::convertToResponse);
+        return bookingRepository.findResponsesByProviderId(providerId, pageable);
+    }
+    
+    /**
+     * The customer's archived bookings (see BookingArchiveJob), which the booking list leaves out.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingResponse> getCustomerBookingHistory(Long customerId, BookingStatus status, Pageable pageable) {
+        if (status != null) {
+            return archivedBookingRepository.findResponsesByCustomerIdAndStatus(customerId, status, pageable);
+        }
+        return archivedBookingRepository.findResponsesByCustomerId(customerId, pageable);
+    }
+    
+    /**
+     * The provider's archived bookings (see BookingArchiveJob), which the booking list leaves out.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingResponse> getProviderBookingHistory(Long providerId, BookingStatus status, Pageable pageable) {
+        if (status != null) {
+            return archivedBookingRepository.findResponsesByProviderIdAndStatus(providerId, status, pageable);
+        }
+        return archivedBookingRepository.findResponsesByProviderId(providerId, pageable);
     }
     
     @Transactional(readOnly = true)
     public List<BookingResponse> getUpcomingBookingsForCustomer(Long customerId) {
         List<BookingStatus> statuses = Arrays.asList(BookingStatus.PENDING, BookingStatus.CONFIRMED);
-        List<Booking> bookings = bookingRepository.findUpcomingBookingsForCustomer(
-            customerId, LocalDateTime.now(), statuses
-        );
-        return bookings.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return bookingRepository.findUpcomingBookingsForCustomer(customerId, LocalDateTime.now(), statuses);
     }
     
     @Transactional(readOnly = true)
     public List<BookingResponse> getUpcomingBookingsForProvider(Long providerId) {
         List<BookingStatus> statuses = Arrays.asList(BookingStatus.PENDING, BookingStatus.CONFIRMED);
-        List<Booking> bookings = bookingRepository.findUpcomingBookingsForProvider(
-            providerId, LocalDateTime.now(), statuses
-        );
-        return bookings.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return bookingRepository.findUpcomingBookingsForProvider(providerId, LocalDateTime.now(), statuses);
     }
     
     private void validateStatusTransition(BookingStatus current, BookingStatus newStatus) {
@@ -191,6 +468,8 @@ public class BookingService {
                 throw new RuntimeException("Completed booking cannot be modified");
             case CANCELLED:
                 throw new RuntimeException("Cancelled booking cannot be modified");
+            case EXPIRED:
+                throw new RuntimeException("Expired booking cannot be modified");
         }
     }
     
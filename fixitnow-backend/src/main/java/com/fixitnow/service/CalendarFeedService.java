@@ -0,0 +1,166 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.BookingStatus;
+import com.fixitnow.model.Role;
+import com.fixitnow.model.User;
+import com.fixitnow.repository.BookingRepository;
+import com.fixitnow.repository.BookingRepository.CalendarEntry;
+import com.fixitnow.repository.BookingRepository.FeedVersion;
+import com.fixitnow.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Per-user iCalendar feeds of bookings, addressed by a secret token so calendar apps can subscribe
+ * without a login. Providers get the bookings they provide, everyone else the bookings they made.
+ * The feed is streamed from a database cursor straight into the response, and its ETag comes from
+ * a count and last-update query so unchanged feeds cost one indexed lookup.
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarFeedService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${calendar.feed.past-days:90}")
+    private int pastDays;
+
+    /**
+     * The user's feed token, created on first use.
+     */
+    @Transactional
+    public String getOrCreateToken(String email) {
+        User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getCalendarToken() != null) {
+            return user.getCalendarToken();
+        }
+        return resetToken(email);
+    }
+
+    /**
+     * Replaces the user's feed token; subscriptions using the old URL stop working.
+     */
+    @Transactional
+    public String resetToken(String email) {
+        User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        userRepository.setCalendarToken(user.getId(), token);
+        return token;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<User> findFeedOwner(String token) {
+        return userRepository.findByCalendarToken(token);
+    }
+
+    /**
+     * Weak ETag over the owner's bookings and the feed window, which moves once a day. Weak because
+     * renamed listings or users change the body without changing the tag.
+     */
+    @Transactional(readOnly = true)
+    public String etag(User owner) {
+        FeedVersion version = isProvider(owner)
+            ? bookingRepository.findFeedVersionForProvider(owner.getId())
+            : bookingRepository.findFeedVersionForCustomer(owner.getId());
+        return "W/\"" + owner.getId() + "-" + version.getBookings() + "-"
+            + (version.getLastUpdated() != null ? version.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0)
+            + "-" + windowStart().toLocalDate().toEpochDay() + "\"";
+    }
+
+    /**
+     * Writes the owner's calendar to the stream. Rows are read through a cursor and written as they
+     * arrive, so memory use does not grow with the number of bookings.
+     */
+    public void writeFeed(User owner, OutputStream outputStream) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ICalendarWriter calendar = new ICalendarWriter(writer);
+        boolean provider = isProvider(owner);
+        calendar.begin("FixItNow bookings");
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<CalendarEntry> entries = provider
+                        ? bookingRepository.streamCalendarForProvider(owner.getId(), windowStart())
+                        : bookingRepository.streamCalendarForCustomer(owner.getId(), windowStart())) {
+                    entries.forEach(entry -> {
+                        try {
+                            calendar.event(toEvent(entry, provider));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        calendar.end();
+    }
+
+    private ICalendarWriter.Event toEvent(CalendarEntry entry, boolean provider) {
+        BookingInterval interval = BookingInterval.of(entry.getBookingDate(), entry.getTimeSlot(), entry.getDurationHours());
+        String otherParty = provider
+            ? "Customer: " + entry.getCustomerName()
+            : "Provider: " + entry.getProviderName();
+        String description = otherParty
+            + "\nStatus: " + entry.getStatus()
+            + "\nPrice: " + entry.getTotalPrice()
+            + "\nBooking #" + entry.getId();
+        LocalDateTime updatedAt = entry.getUpdatedAt() != null ? entry.getUpdatedAt() : entry.getBookingDate();
+        return new ICalendarWriter.Event(
+            "booking-" + entry.getId() + "@fixitnow",
+            updatedAt.atZone(ZoneId.systemDefault()).toInstant(),
+            interval.start(),
+            interval.end(),
+            entry.getServiceTitle(),
+            entry.getServiceLocation(),
+            description,
+            eventStatus(entry.getStatus())
+        );
+    }
+
+    private static String eventStatus(BookingStatus status) {
+        return switch (status) {
+            case PENDING -> "TENTATIVE";
+            case CONFIRMED, COMPLETED -> "CONFIRMED";
+            case CANCELLED, EXPIRED -> "CANCELLED";
+        };
+    }
+
+    private LocalDateTime windowStart() {
+        return LocalDate.now().minusDays(pastDays).atStartOfDay();
+    }
+
+    private static boolean isProvider(User user) {
+        return user.getRole() == Role.PROVIDER;
+    }
+}
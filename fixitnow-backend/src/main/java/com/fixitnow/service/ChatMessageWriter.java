@@ -0,0 +1,346 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ChatMessageAck;
+import com.fixitnow.dto.ChatMessageDTO;
+import com.fixitnow.dto.SendMessageRequest;
+import com.fixitnow.model.ChatMessage;
+import com.fixitnow.model.ChatRoom;
+import com.fixitnow.repository.ChatRoomRepository;
+import com.fixitnow.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcast-first persistence for WebSocket chat messages, enabled by chat.async-persistence.enabled.
+ *
+ * A message takes an id from the chat message sequence, goes onto a bounded queue and is broadcast
+ * at once. One writer thread per queue then saves
+ * queued messages as a multi-row INSERT and updates each room once per batch. Rooms are spread over
+ * chat.writer.shards queues by id, so all of a room's sends on this node pass through one writer,
+ * in the order they were broadcast. That writer numbers them (seq) from the locked room row, the
+ * same counter synchronous sends use, so seq is the room's order on every node; ids come in blocks
+ * and only identify messages. For seq to also follow broadcast order, a room's WebSocket sends
+ * should be routed to the same node.
+ * When a queue stays full for chat.writer.enqueue-timeout-ms the send is refused rather than
+ * broadcast. Senders get an ack with the message's seq on /user/queue/chat.acks once it is
+ * committed, or a failed ack if it could not be saved after chat.writer.max-attempts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageWriter {
+
+    private static final String INSERT_MESSAGE = "INSERT INTO chat_messages " +
+        "(id, chat_room_id, seq, sender_id, message, message_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${chat.async-persistence.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.writer.shards:4}")
+    private int shardCount;
+
+    @Value("${chat.writer.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${chat.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.writer.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    @Value("${chat.writer.max-attempts:3}")
+    private int maxAttempts;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchMillis = new LongAdder();
+
+    private SessionFactoryImplementor sessionFactory;
+    private IdentifierGenerator idGenerator;
+    private Shard[] shards;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // The generator ChatMessage itself uses, so ids handed out here and by regular saves never collide
+        idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+            .getEntityDescriptor(ChatMessage.class).getGenerator();
+        running = true;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<PendingMessage> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread thread = Thread.ofPlatform().name("chat-writer-" + i).start(() -> writeLoop(queue));
+            shards[i] = new Shard(queue, thread);
+        }
+        log.info("Chat write-behind started with {} writers", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (shards == null) {
+            return;
+        }
+        running = false;
+        for (Shard shard : shards) {
+            try {
+                shard.thread().join(30_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Anything queued after a writer exited, or left by one that did not finish in time
+        for (Shard shard : shards) {
+            List<PendingMessage> remaining = new ArrayList<>();
+            shard.queue().drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                write(remaining);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the message and broadcasts it to the room; throws if the room's queue is full.
+     */
+    public ChatMessageDTO publish(ChatRoomCache.Room room, Long senderId, SendMessageRequest request, String ackUser) {
+        boolean fromCustomer = room.isCustomer(senderId);
+        String messageType = request.getMessageType() != null ? request.getMessageType() : "TEXT";
+        Shard shard = shards[Math.floorMod(room.id().hashCode(), shards.length)];
+
+        // One message per shard at a time, so queue order and broadcast order agree
+        synchronized (shard) {
+            if (!running) {
+                throw new RuntimeException("Chat is shutting down, please retry");
+            }
+            PendingMessage message = new PendingMessage(nextId(), room.id(), room.roomId(), senderId,
+                room.otherParticipant(senderId), fromCustomer,
+                request.getMessage(), messageType, LocalDateTime.now(), ackUser, request.getClientMessageId());
+            try {
+                if (!shard.queue().offer(message, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    rejected.increment();
+                    throw new RuntimeException("Chat is busy, please retry");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while sending message");
+            }
+            accepted.increment();
+
+            ChatMessageDTO dto = ChatMessageDTO.builder()
+                .id(message.id())
+                .chatRoomId(message.chatRoomId())
+                .roomId(message.roomId())
+                .senderId(message.senderId())
+                .senderName(room.nameOf(senderId))
+                .message(message.text())
+                .isRead(false)
+                .messageType(messageType)
+                .createdAt(message.createdAt())
+                .build();
+            messagingTemplate.convertAndSend("/topic/room/" + message.roomId(), dto);
+            return dto;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int queued = 0;
+        if (shards != null) {
+            for (Shard shard : shards) {
+                queued += shard.queue().size();
+            }
+        }
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("shards", enabled ? shardCount : 0);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("queued", queued);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("persisted", persisted.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batchCount);
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) persisted.sum() / batchCount);
+        stats.put("batchMillisTotal", batchMillis.sum());
+        return stats;
+    }
+
+    private Long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) idGenerator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    private void writeLoop(BlockingQueue<PendingMessage> queue) {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // stop() saves whatever is still queued
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        long started = System.currentTimeMillis();
+        Map<Long, Long> seqById;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                seqById = transactionTemplate.execute(status -> writeBatch(batch));
+                break;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failed.add(batch.size());
+                    log.error("Could not save {} chat messages after {} attempts", batch.size(), attempt, e);
+                    batch.forEach(message -> ack(message, null, "Message could not be saved"));
+                    return;
+                }
+                log.warn("Saving {} chat messages failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        batches.increment();
+        persisted.add(batch.size());
+        batchMillis.add(System.currentTimeMillis() - started);
+        Map<Long, Long> saved = seqById;
+        batch.forEach(message -> ack(message, saved.get(message.id()), null));
+    }
+
+    // Returns each message's seq by id
+    private Map<Long, Long> writeBatch(List<PendingMessage> batch) {
+        // Rooms, then users, each in id order; ChatService also locks a room before a user
+        Map<Long, List<PendingMessage>> byRoom = new TreeMap<>();
+        for (PendingMessage message : batch) {
+            byRoom.computeIfAbsent(message.chatRoomId(), id -> new ArrayList<>()).add(message);
+        }
+        List<ChatRoom> rooms = new ArrayList<>(byRoom.size());
+        for (Long roomId : byRoom.keySet()) {
+            rooms.add(chatRoomRepository.findByIdForUpdate(roomId)
+                .orElseThrow(() -> new IllegalStateException("Chat room " + roomId + " not found")));
+        }
+
+        // Queue order within each room, continuing from the room's counter
+        Map<Long, Long> seqById = new HashMap<>();
+        for (ChatRoom room : rooms) {
+            for (PendingMessage message : byRoom.get(room.getId())) {
+                room.setLastSeq(room.getLastSeq() + 1);
+                seqById.put(message.id(), room.getLastSeq());
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch.stream()
+            .map(message -> new Object[] { message.id(), message.chatRoomId(), seqById.get(message.id()),
+                message.senderId(), message.text(), message.messageType(), Timestamp.valueOf(message.createdAt()) })
+            .toList());
+
+        Map<Long, Integer> unreadByRecipient = new TreeMap<>();
+        for (ChatRoom room : rooms) {
+            List<PendingMessage> messages = byRoom.get(room.getId());
+            PendingMessage last = messages.get(messages.size() - 1);
+            room.setLastMessageAt(last.createdAt());
+            room.setLastMessageId(last.id());
+            room.setLastMessagePreview(ChatService.preview(last.text()));
+            room.setLastSenderId(last.senderId());
+            for (PendingMessage message : messages) {
+                if (message.fromCustomer()) {
+                    room.setProviderUnread(room.getProviderUnread() + 1);
+                } else {
+                    room.setCustomerUnread(room.getCustomerUnread() + 1);
+                }
+                unreadByRecipient.merge(message.recipientId(), 1, Integer::sum);
+            }
+        }
+        unreadByRecipient.forEach(userRepository::addChatUnread);
+        return seqById;
+    }
+
+    // seq is null when the message could not be saved
+    private void ack(PendingMessage message, Long seq, String error) {
+        if (message.ackUser() == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(message.ackUser(), "/queue/chat.acks", ChatMessageAck.builder()
+                .messageId(message.id())
+                .seq(seq)
+                .roomId(message.roomId())
+                .clientMessageId(message.clientMessageId())
+                .persisted(seq != null)
+                .error(error)
+                .build());
+        } catch (RuntimeException e) {
+            log.debug("Could not ack chat message {}: {}", message.id(), e.getMessage());
+        }
+    }
+
+    private record Shard(BlockingQueue<PendingMessage> queue, Thread thread) {
+    }
+
+    private record PendingMessage(
+            Long id,
+            Long chatRoomId,
+            String roomId,
+            Long senderId,
+            Long recipientId,
+            boolean fromCustomer,
+            String text,
+            String messageType,
+            LocalDateTime createdAt,
+            String ackUser,
+            String clientMessageId
+    ) {
+    }
+}
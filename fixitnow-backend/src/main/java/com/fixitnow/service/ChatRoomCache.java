@@ -0,0 +1,144 @@
+package com.fixitnow.service;
+
+import com.fixitnow.repository.ChatRoomRepository;
+import com.fixitnow.repository.ChatRoomRepository.RoomParticipants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of chat room descriptors (internal id, participants, their names, active flag)
+ * keyed by the public room id, so checking who may use a room and labelling its messages needs no
+ * queries. Rooms never change participants; entries expire after chat.room-cache.ttl-seconds so
+ * renamed users show up, and must be invalidated when a room is deactivated.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatRoomCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+
+    @Value("${chat.room-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${chat.room-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * The room's descriptor, loaded on a miss; empty if there is no such room.
+     */
+    public Optional<Room> get(String roomId) {
+        synchronized (entries) {
+            Entry entry = entries.get(roomId);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return Optional.of(entry.room());
+            }
+            if (entry != null) {
+                entries.remove(roomId);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        Optional<Room> loaded = chatRoomRepository.findParticipantsByRoomId(roomId).map(Room::of);
+        loaded.ifPresent(room -> put(roomId, room));
+        return loaded;
+    }
+
+    /**
+     * Call whenever a room is deactivated or otherwise changed.
+     */
+    public void invalidate(String roomId) {
+        synchronized (entries) {
+            if (entries.remove(roomId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long lookups = hitCount + missCount;
+        return Map.of(
+                "size", size,
+                "maxEntries", maxEntries,
+                "ttlSeconds", ttlSeconds,
+                "hits", hitCount,
+                "misses", missCount,
+                "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                "evictions", evictions.sum(),
+                "invalidations", invalidations.sum()
+        );
+    }
+
+    private void put(String roomId, Room room) {
+        synchronized (entries) {
+            entries.put(roomId, new Entry(room, System.currentTimeMillis() + ttlSeconds * 1000));
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Entry(Room room, long expiresAt) {
+    }
+
+    public record Room(
+            Long id,
+            String roomId,
+            boolean active,
+            Long customerId,
+            String customerName,
+            Long providerId,
+            String providerName
+    ) {
+
+        static Room of(RoomParticipants participants) {
+            return new Room(participants.getId(), participants.getRoomId(),
+                    !Boolean.FALSE.equals(participants.getActive()),
+                    participants.getCustomerId(), participants.getCustomerName(),
+                    participants.getProviderId(), participants.getProviderName());
+        }
+
+        public boolean isMember(Long userId) {
+            return customerId.equals(userId) || providerId.equals(userId);
+        }
+
+        public boolean isCustomer(Long userId) {
+            return customerId.equals(userId);
+        }
+
+        public Long otherParticipant(Long userId) {
+            return isCustomer(userId) ? providerId : customerId;
+        }
+
+        public String nameOf(Long userId) {
+            return isCustomer(userId) ? customerName : providerName;
+        }
+    }
+}
@@ -2,19 +2,22 @@ package com.fixitnow.service;
 
 import com.fixitnow.dto.ChatMessageDTO;
 import com.fixitnow.dto.ChatRoomDTO;
+import com.fixitnow.dto.CursorPageDTO;
 import com.fixitnow.dto.SendMessageRequest;
 import com.fixitnow.model.*;
 import com.fixitnow.repository.BookingRepository;
 import com.fixitnow.repository.ChatMessageRepository;
 import com.fixitnow.repository.ChatRoomRepository;
+import com.fixitnow.repository.ChatRoomRepository.ReadState;
 import com.fixitnow.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,10 +25,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChatService {
     
+    // Matches the chat_rooms.last_message_preview column
+    private static final int PREVIEW_LENGTH = 200;
+    
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatRoomCache chatRoomCache;
     
     @Transactional
     public ChatRoomDTO createOrGetChatRoom(Long bookingId, Long userId) {
@@ -61,87 +69,126 @@ public class ChatService {
     
     @Transactional
     public ChatMessageDTO sendMessage(String roomId, Long senderId, SendMessageRequest request) {
-        // Get chat room
-        ChatRoom chatRoom = chatRoomRepository.findByRoomId(roomId)
-            .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        ChatRoomCache.Room room = sendableRoom(roomId, senderId);
         
-        // Verify sender is part of the chat
-        if (!chatRoom.getCustomer().getId().equals(senderId) && 
-            !chatRoom.getProvider().getId().equals(senderId)) {
-            throw new RuntimeException("Unauthorized to send message in this chat");
-        }
+        // Room row locked so concurrent sends and reads update its counters in turn
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(room.id())
+            .orElseThrow(() -> new RuntimeException("Chat room not found"));
         
-        // Get sender
-        User sender = userRepository.findById(senderId)
-            .orElseThrow(() -> new RuntimeException("Sender not found"));
+        // Next position in the room, taken under the lock so each seq is used once
+        long seq = chatRoom.getLastSeq() + 1;
+        chatRoom.setLastSeq(seq);
         
         // Create message
         ChatMessage message = ChatMessage.builder()
             .chatRoom(chatRoom)
-            .sender(sender)
+            .seq(seq)
+            .sender(userRepository.getReferenceById(senderId))
             .message(request.getMessage())
             .messageType(request.getMessageType())
-            .isRead(false)
             .build();
         
         message = chatMessageRepository.save(message);
         
-        // Update chat room last message time
-        chatRoom.setLastMessageAt(LocalDateTime.now());
-        chatRoomRepository.save(chatRoom);
+        // Update the room's last message and the recipient's unread counters
+        chatRoom.setLastMessageAt(message.getCreatedAt());
+        chatRoom.setLastMessageId(message.getId());
+        chatRoom.setLastMessagePreview(preview(message.getMessage()));
+        chatRoom.setLastSenderId(senderId);
+        if (room.isCustomer(senderId)) {
+            chatRoom.setProviderUnread(chatRoom.getProviderUnread() + 1);
+        } else {
+            chatRoom.setCustomerUnread(chatRoom.getCustomerUnread() + 1);
+        }
+        userRepository.addChatUnread(room.otherParticipant(senderId), 1);
         
-        return convertToChatMessageDTO(message);
+        return convertToChatMessageDTO(message, room, null);
+    }
+    
+    public boolean isAsyncPersistence() {
+        return chatMessageWriter.isEnabled();
+    }
+    
+    /**
+     * Broadcast-first send: checks the sender belongs to the room against the room cache, then
+     * hands the message to ChatMessageWriter, which broadcasts it right away and saves it in the
+     * background. The ack for ackUser follows once it is saved.
+     */
+    public ChatMessageDTO publishMessage(String roomId, Long senderId, SendMessageRequest request, String ackUser) {
+        return chatMessageWriter.publish(sendableRoom(roomId, senderId), senderId, request, ackUser);
     }
     
     @Transactional(readOnly = true)
     public List<ChatMessageDTO> getChatMessages(String roomId, Long userId) {
-        // Get chat room
-        ChatRoom chatRoom = chatRoomRepository.findByRoomId(roomId)
-            .orElseThrow(() -> new RuntimeException("Chat room not found"));
-        
-        // Verify user is part of the chat
-        if (!chatRoom.getCustomer().getId().equals(userId) && 
-            !chatRoom.getProvider().getId().equals(userId)) {
-            throw new RuntimeException("Unauthorized to view this chat");
-        }
+        ChatRoomCache.Room room = memberRoom(roomId, userId, "Unauthorized to view this chat");
+        ReadState readState = readState(room);
         
         // Get recent messages
-        List<ChatMessage> messages = chatMessageRepository.findTop50ByChatRoomIdOrderByCreatedAtDesc(chatRoom.getId());
+        List<ChatMessage> messages = chatMessageRepository.findTop50ByChatRoomIdOrderBySeqDesc(room.id());
         
         return messages.stream()
-            .map(this::convertToChatMessageDTO)
+            .map(message -> convertToChatMessageDTO(message, room, readState))
             .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
     public Page<ChatMessageDTO> getChatMessagesPaginated(String roomId, Long userId, Pageable pageable) {
-        // Get chat room
-        ChatRoom chatRoom = chatRoomRepository.findByRoomId(roomId)
-            .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        ChatRoomCache.Room room = memberRoom(roomId, userId, "Unauthorized to view this chat");
+        ReadState readState = readState(room);
         
-        // Verify user is part of the chat
-        if (!chatRoom.getCustomer().getId().equals(userId) && 
-            !chatRoom.getProvider().getId().equals(userId)) {
-            throw new RuntimeException("Unauthorized to view this chat");
-        }
+        Page<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderBySeqDesc(room.id(), pageable);
         
-        Page<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtDesc(chatRoom.getId(), pageable);
+        return messages.map(message -> convertToChatMessageDTO(message, room, readState));
+    }
+    
+    /**
+     * Up to limit messages older than the message with seq beforeSeq (the newest ones when null),
+     * newest first. The slice stays stable while new messages arrive; pass nextCursor back as
+     * beforeSeq to continue.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ChatMessageDTO> getChatMessagesBefore(String roomId, Long userId, Long beforeSeq, int limit) {
+        ChatRoomCache.Room room = memberRoom(roomId, userId, "Unauthorized to view this chat");
+        ReadState readState = readState(room);
+        
+        // Slice fetches limit + 1 rows to detect more history and never issues a count query
+        Pageable pageable = PageRequest.of(0, limit);
+        Slice<ChatMessage> slice = beforeSeq == null
+            ? chatMessageRepository.findLatest(room.id(), pageable)
+            : chatMessageRepository.findBefore(room.id(), beforeSeq, pageable);
         
-        return messages.map(this::convertToChatMessageDTO);
+        List<ChatMessageDTO> messages = slice.getContent().stream()
+            .map(message -> convertToChatMessageDTO(message, room, readState))
+            .collect(Collectors.toList());
+        String nextCursor = slice.hasNext() ? String.valueOf(messages.get(messages.size() - 1).getSeq()) : null;
+        return CursorPageDTO.<ChatMessageDTO>builder()
+            .content(messages)
+            .size(limit)
+            .hasNext(slice.hasNext())
+            .nextCursor(nextCursor)
+            .build();
     }
     
     @Transactional
     public void markMessagesAsRead(String roomId, Long userId) {
-        ChatRoom chatRoom = chatRoomRepository.findByRoomId(roomId)
+        ChatRoomCache.Room room = memberRoom(roomId, userId, "Unauthorized to access this chat");
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(room.id())
             .orElseThrow(() -> new RuntimeException("Chat room not found"));
         
-        // Verify user is part of the chat
-        if (!chatRoom.getCustomer().getId().equals(userId) && 
-            !chatRoom.getProvider().getId().equals(userId)) {
-            throw new RuntimeException("Unauthorized to access this chat");
+        // Moving the reader's watermark up to the last message marks everything as read in one row
+        Long lastSeq = chatRoom.getLastSeq();
+        boolean isCustomer = room.isCustomer(userId);
+        int unread = isCustomer ? chatRoom.getCustomerUnread() : chatRoom.getProviderUnread();
+        if (isCustomer) {
+            chatRoom.setCustomerLastReadSeq(lastSeq);
+            chatRoom.setCustomerUnread(0);
+        } else {
+            chatRoom.setProviderLastReadSeq(lastSeq);
+            chatRoom.setProviderUnread(0);
+        }
+        if (unread > 0) {
+            userRepository.addChatUnread(userId, -unread);
         }
-        
-        chatMessageRepository.markMessagesAsRead(chatRoom.getId(), userId);
     }
     
     @Transactional(readOnly = true)
@@ -149,36 +196,58 @@ public class ChatService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ChatRoom> chatRooms;
-        
         if (user.getRole() == Role.CUSTOMER) {
-            chatRooms = chatRoomRepository.findActiveRoomsByCustomerId(userId);
+            return chatRoomRepository.findInboxForCustomer(userId);
         } else if (user.getRole() == Role.PROVIDER) {
-            chatRooms = chatRoomRepository.findActiveRoomsByProviderId(userId);
+            return chatRoomRepository.findInboxForProvider(userId);
         } else {
             throw new RuntimeException("Invalid user role for chat");
         }
-        
-        return chatRooms.stream()
-            .map(room -> convertToChatRoomDTO(room, userId))
-            .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
     public long getUnreadCount(String roomId, Long userId) {
-        ChatRoom chatRoom = chatRoomRepository.findByRoomId(roomId)
+        ChatRoomCache.Room room = chatRoomCache.get(roomId)
             .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        if (!room.isMember(userId)) {
+            return 0;
+        }
         
-        return chatMessageRepository.countUnreadMessages(chatRoom.getId(), userId);
+        ReadState readState = readState(room);
+        return room.isCustomer(userId) ? readState.getCustomerUnread() : readState.getProviderUnread();
     }
     
-    private ChatRoomDTO convertToChatRoomDTO(ChatRoom chatRoom, Long currentUserId) {
-        long unreadCount = chatMessageRepository.countUnreadMessages(chatRoom.getId(), currentUserId);
-        
-        // Get last message
-        List<ChatMessage> recentMessages = chatMessageRepository.findTop50ByChatRoomIdOrderByCreatedAtDesc(chatRoom.getId());
-        String lastMessage = recentMessages.isEmpty() ? null : recentMessages.get(0).getMessage();
+    @Transactional(readOnly = true)
+    public long getTotalUnreadCount(Long userId) {
+        return userRepository.findChatUnreadCount(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+    
+    private ChatRoomCache.Room memberRoom(String roomId, Long userId, String unauthorizedMessage) {
+        ChatRoomCache.Room room = chatRoomCache.get(roomId)
+            .orElseThrow(() -> new RuntimeException("Chat room not found"));
         
+        // Verify user is part of the chat
+        if (!room.isMember(userId)) {
+            throw new RuntimeException(unauthorizedMessage);
+        }
+        return room;
+    }
+    
+    private ChatRoomCache.Room sendableRoom(String roomId, Long senderId) {
+        ChatRoomCache.Room room = memberRoom(roomId, senderId, "Unauthorized to send message in this chat");
+        if (!room.active()) {
+            throw new RuntimeException("Chat room is no longer active");
+        }
+        return room;
+    }
+    
+    private ReadState readState(ChatRoomCache.Room room) {
+        return chatRoomRepository.findReadStateById(room.id())
+            .orElseThrow(() -> new RuntimeException("Chat room not found"));
+    }
+    
+    private ChatRoomDTO convertToChatRoomDTO(ChatRoom chatRoom, Long currentUserId) {
         return ChatRoomDTO.builder()
             .id(chatRoom.getId())
             .roomId(chatRoom.getRoomId())
@@ -188,22 +257,49 @@ public class ChatService {
             .providerId(chatRoom.getProvider().getId())
             .providerName(chatRoom.getProvider().getName())
             .isActive(chatRoom.getIsActive())
-            .unreadCount(unreadCount)
-            .lastMessage(lastMessage)
+            .unreadCount(unreadFor(chatRoom, currentUserId))
+            .lastMessage(chatRoom.getLastMessagePreview())
             .lastMessageAt(chatRoom.getLastMessageAt())
+            .lastMessageSenderId(chatRoom.getLastSenderId())
             .createdAt(chatRoom.getCreatedAt())
             .build();
     }
     
-    private ChatMessageDTO convertToChatMessageDTO(ChatMessage message) {
+    private static long unreadFor(ChatRoom chatRoom, Long userId) {
+        if (chatRoom.getCustomer().getId().equals(userId)) {
+            return chatRoom.getCustomerUnread();
+        }
+        if (chatRoom.getProvider().getId().equals(userId)) {
+            return chatRoom.getProviderUnread();
+        }
+        return 0;
+    }
+    
+    // First PREVIEW_LENGTH characters, without splitting a surrogate pair
+    static String preview(String message) {
+        if (message == null || message.length() <= PREVIEW_LENGTH) {
+            return message;
+        }
+        int end = Character.isHighSurrogate(message.charAt(PREVIEW_LENGTH - 1)) ? PREVIEW_LENGTH - 1 : PREVIEW_LENGTH;
+        return message.substring(0, end);
+    }
+    
+    // Names and room ids come from the cached room; a message is read once the other participant's
+    // watermark has reached it (no read state: just sent, so unread)
+    private ChatMessageDTO convertToChatMessageDTO(ChatMessage message, ChatRoomCache.Room room, ReadState readState) {
+        Long senderId = message.getSender().getId();
+        Long readUpTo = readState == null ? null
+            : room.isCustomer(senderId) ? readState.getProviderLastReadSeq() : readState.getCustomerLastReadSeq();
+        
         return ChatMessageDTO.builder()
             .id(message.getId())
-            .chatRoomId(message.getChatRoom().getId())
-            .roomId(message.getChatRoom().getRoomId())
-            .senderId(message.getSender().getId())
-            .senderName(message.getSender().getName())
+            .seq(message.getSeq())
+            .chatRoomId(room.id())
+            .roomId(room.roomId())
+            .senderId(senderId)
+            .senderName(room.nameOf(senderId))
             .message(message.getMessage())
-            .isRead(message.getIsRead())
+            .isRead(readUpTo != null && message.getSeq() <= readUpTo)
             .messageType(message.getMessageType())
             .createdAt(message.getCreatedAt())
             .build();
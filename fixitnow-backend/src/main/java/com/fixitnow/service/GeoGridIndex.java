@@ -0,0 +1,209 @@
+package com.fixitnow.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Fixed-size lat/lng grid over point keys (listing ordinals, provider profile ids, ...).
+ * Radius queries only visit the cells overlapping the query's bounding box, and nearest-N
+ * queries expand ring by ring from the origin cell, so neither scans every point. Columns wrap
+ * around at the antimeridian.
+ */
+public class GeoGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double CELL_DEGREES = 0.05; // ~5.5 km at the equator
+    private static final double CELL_KM = CELL_DEGREES * KM_PER_DEGREE; // north-south, at any latitude
+    private static final long COLUMNS = (long) Math.ceil(360 / CELL_DEGREES);
+    // Upper bound on nearest-N rings (~40k cell lookups); cells shrink towards the poles, so a radius
+    // that is small near the equator could otherwise mean thousands of rings
+    private static final int MAX_RINGS = 100;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final Map<Long, double[]> points = new HashMap<>();
+
+    public void put(long key, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+            points.put(key, new double[]{latitude, longitude});
+            cells.computeIfAbsent(cellOf(latitude, longitude), c -> new HashSet<>()).add(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Calls the consumer for every key within radiusKm of the origin.
+     */
+    public void forEachWithin(double latitude, double longitude, double radiusKm, LongConsumer consumer) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        // Widest east-west extent of the circle is at its most poleward latitude
+        double polewardLatitude = Math.min(Math.abs(latitude) + latDelta, 90);
+        double lngDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(polewardLatitude)), 0.01));
+        long minRow = row(Math.max(latitude - latDelta, -90));
+        long maxRow = row(Math.min(latitude + latDelta, 90));
+        // Unwrapped column range; may run past either end of the grid at the antimeridian
+        long minCol = lngDelta >= 180 ? 0 : (long) Math.floor((longitude - lngDelta + 180) / CELL_DEGREES);
+        long maxCol = lngDelta >= 180 ? COLUMNS - 1 : (long) Math.floor((longitude + lngDelta + 180) / CELL_DEGREES);
+        long columnCount = Math.min(maxCol - minCol + 1, COLUMNS);
+
+        lock.readLock().lock();
+        try {
+            long span = (maxRow - minRow + 1) * columnCount;
+            if (span > cells.size()) {
+                // Sparse grid: walking the occupied cells is cheaper than walking the bounding box
+                for (Map.Entry<Long, Set<Long>> cell : cells.entrySet()) {
+                    long r = cell.getKey() / COLUMNS;
+                    long c = cell.getKey() % COLUMNS;
+                    if (r >= minRow && r <= maxRow && Math.floorMod(c - minCol, COLUMNS) < columnCount) {
+                        emitWithin(cell.getValue(), latitude, longitude, radiusKm, consumer);
+                    }
+                }
+                return;
+            }
+            for (long r = minRow; r <= maxRow; r++) {
+                for (long c = minCol; c < minCol + columnCount; c++) {
+                    Set<Long> keys = cells.get(r * COLUMNS + Math.floorMod(c, COLUMNS));
+                    if (keys != null) {
+                        emitWithin(keys, latitude, longitude, radiusKm, consumer);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit keys closest to the origin and no further than maxRadiusKm, nearest first.
+     * The search stops after MAX_RINGS rings of cells, which may cut the radius short near the poles.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int limit, double maxRadiusKm) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        long originRow = row(latitude);
+        long originCol = column(longitude);
+
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ; ring++) {
+                // Every point in this ring is at least ring - 1 cell steps away. An east-west step is
+                // narrowest at the most poleward latitude the ring reaches, so that bounds the distance.
+                double polewardLatitude = Math.min(Math.abs(latitude) + (ring + 1) * CELL_DEGREES, 90);
+                double cellKm = CELL_KM * Math.cos(Math.toRadians(polewardLatitude));
+                double ringFloorKm = Math.max(0, ring - 1) * cellKm;
+                if (ringFloorKm > maxRadiusKm) {
+                    break;
+                }
+                if (best.size() == limit && best.peek().distanceKm() <= ringFloorKm) {
+                    break;
+                }
+                if (ring > MAX_RINGS || ring > COLUMNS / 2) {
+                    break;
+                }
+                for (long r = originRow - ring; r <= originRow + ring; r++) {
+                    boolean edgeRow = r == originRow - ring || r == originRow + ring;
+                    long step = edgeRow ? 1 : Math.max(1, 2L * ring);
+                    for (long c = originCol - ring; c <= originCol + ring; c += step) {
+                        Set<Long> keys = r >= 0 ? cells.get(r * COLUMNS + Math.floorMod(c, COLUMNS)) : null;
+                        if (keys == null) {
+                            continue;
+                        }
+                        for (Long key : keys) {
+                            double[] point = points.get(key);
+                            double distance = distanceKm(latitude, longitude, point[0], point[1]);
+                            if (distance > maxRadiusKm) {
+                                continue;
+                            }
+                            if (best.size() < limit) {
+                                best.add(new Neighbor(key, distance));
+                            } else if (distance < best.peek().distanceKm()) {
+                                best.poll();
+                                best.add(new Neighbor(key, distance));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void emitWithin(Set<Long> keys, double latitude, double longitude, double radiusKm, LongConsumer consumer) {
+        for (Long key : keys) {
+            double[] point = points.get(key);
+            if (distanceKm(latitude, longitude, point[0], point[1]) <= radiusKm) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    // Caller must hold the write lock
+    private void removeInternal(long key) {
+        double[] previous = points.remove(key);
+        if (previous != null) {
+            long cell = cellOf(previous[0], previous[1]);
+            Set<Long> keys = cells.get(cell);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    cells.remove(cell);
+                }
+            }
+        }
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return row(latitude) * COLUMNS + column(longitude);
+    }
+
+    private static long row(double latitude) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / CELL_DEGREES);
+    }
+
+    private static long column(double longitude) {
+        return Math.min(COLUMNS - 1, (long) Math.floor((Math.max(-180, Math.min(180, longitude)) + 180) / CELL_DEGREES));
+    }
+
+    public record Neighbor(long key, double distanceKm) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.fixitnow.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes an RFC 5545 calendar one event at a time: CRLF line endings, TEXT values escaped and
+ * lines folded at 75 octets without splitting a UTF-8 sequence. Event times are floating local
+ * times, since booking dates carry no zone.
+ */
+class ICalendarWriter {
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer out;
+
+    ICalendarWriter(Writer out) {
+        this.out = out;
+    }
+
+    void begin(String calendarName) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//FixItNow//Bookings//EN");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(calendarName));
+    }
+
+    void event(Event event) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + event.uid());
+        line("DTSTAMP:" + UTC.format(event.stamp()));
+        line("DTSTART:" + LOCAL.format(event.start()));
+        line("DTEND:" + LOCAL.format(event.end()));
+        line("SUMMARY:" + escape(event.summary()));
+        if (event.location() != null && !event.location().isBlank()) {
+            line("LOCATION:" + escape(event.location()));
+        }
+        line("DESCRIPTION:" + escape(event.description()));
+        line("STATUS:" + event.status());
+        line("END:VEVENT");
+    }
+
+    void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    private void line(String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int length = utf8Length(codePoint);
+            if (octets + length > MAX_LINE_OCTETS) {
+                // Continuation lines start with a space, which counts towards their 75 octets
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            octets += length;
+            i += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+
+    static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ';' -> escaped.append("\\;");
+                case ',' -> escaped.append("\\,");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    record Event(String uid, Instant stamp, LocalDateTime start, LocalDateTime end,
+                 String summary, String location, String description, String status) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.fixitnow.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Half-open [start, end) intervals in a treap ordered by (start, id), with every node caching the
+ * largest end in its subtree. Overlap checks follow a single root-to-leaf path and range queries
+ * only descend into subtrees that can still reach the range. Not thread-safe; BookingScheduleIndex
+ * guards each tree.
+ */
+class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    void insert(long id, long start, long end) {
+        root = insert(root, new Node(id, start, end, ThreadLocalRandom.current().nextInt()));
+        size++;
+    }
+
+    boolean remove(long id, long start) {
+        int before = size;
+        root = remove(root, id, start);
+        return size < before;
+    }
+
+    /**
+     * Whether any interval overlaps [start, end).
+     */
+    boolean overlaps(long start, long end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) {
+                return true;
+            }
+            // If the left subtree has nothing reaching past start, nothing to the left can overlap;
+            // otherwise an overlap, if any, is guaranteed to be on the left
+            node = node.left != null && node.left.maxEnd > start ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds every interval overlapping [from, to) to the result, ordered by start.
+     */
+    void collect(long from, long to, List<Interval> result) {
+        collect(root, from, to, result);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static void collect(Node node, long from, long to, List<Interval> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            result.add(new Interval(node.id, node.start, node.end));
+        }
+        collect(node.right, from, to, result);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node remove(Node node, long id, long start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    // Joins two treaps where every key on the left is smaller than every key on the right
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int compare(long start, long id, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static final class Node {
+        final long id;
+        final long start;
+        final long end;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long id, long start, long end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+
+    record Interval(long id, long start, long end) {
+    }
+}
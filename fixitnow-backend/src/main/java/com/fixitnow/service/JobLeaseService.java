@@ -0,0 +1,61 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.JobLease;
+import com.fixitnow.repository.JobLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database leases for scheduled jobs that must run on one node at a time. A node that dies
+ * holding a lease blocks the job only until the lease runs out.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobLeaseService {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Identifies this application instance as a lease owner
+    private final String owner = hostName() + ":" + UUID.randomUUID();
+
+    /**
+     * Takes or extends the named lease for the given duration; false if another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        if (!jobLeaseRepository.existsById(name)) {
+            try {
+                // Created already expired, then taken by the update below like any other lease
+                transactionTemplate.executeWithoutResult(status ->
+                    jobLeaseRepository.saveAndFlush(new JobLease(name, LocalDateTime.now().minusSeconds(1))));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(status ->
+            jobLeaseRepository.acquire(name, owner, now, now.plus(duration)));
+        return acquired != null && acquired > 0;
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status ->
+            jobLeaseRepository.release(name, owner, LocalDateTime.now()));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
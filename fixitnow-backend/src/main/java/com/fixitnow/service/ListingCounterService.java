@@ -0,0 +1,133 @@
+package com.fixitnow.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind listing view and booking counters. Increments land in per-listing LongAdders, so
+ * concurrent page views never contend on a lock or a row, and are written out periodically (and
+ * on shutdown) as batched additive UPDATEs of service_listings and service_search_view. Counters
+ * read from the database lag by up to one flush interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingCounterService {
+
+    private static final String UPDATE_LISTINGS =
+        "UPDATE service_listings SET view_count = COALESCE(view_count, 0) + ?, " +
+        "booking_count = COALESCE(booking_count, 0) + ? WHERE id = ?";
+    private static final String UPDATE_SEARCH_VIEW =
+        "UPDATE service_search_view SET view_count = COALESCE(view_count, 0) + ?, " +
+        "booking_count = COALESCE(booking_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SuggestionIndex suggestionIndex;
+
+    private final Map<Long, Counts> counters = new ConcurrentHashMap<>();
+    // Idle counters removed by the previous flush; drained once more in case an increment raced the removal
+    private List<Counts> retired = new ArrayList<>();
+
+    public void recordView(Long listingId) {
+        counts(listingId).views.increment();
+    }
+
+    /**
+     * Counts bookings once the surrounding transaction commits (immediately without one).
+     */
+    public void recordBookings(Long listingId, int count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counts(listingId).bookings.add(count);
+                }
+            });
+        } else {
+            counts(listingId).bookings.add(count);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${listing.counters.flush-interval-ms:10000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Counts straggler : retired) {
+            straggler.drainInto(deltas);
+        }
+        retired = new ArrayList<>();
+        for (Map.Entry<Long, Counts> entry : counters.entrySet()) {
+            if (!entry.getValue().drainInto(deltas) && counters.remove(entry.getKey(), entry.getValue())) {
+                retired.add(entry.getValue());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = deltas.stream()
+            .map(delta -> new Object[] { delta.views(), delta.bookings(), delta.listingId() })
+            .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_LISTINGS, args);
+                jdbcTemplate.batchUpdate(UPDATE_SEARCH_VIEW, args);
+            });
+        } catch (RuntimeException e) {
+            // Keep the increments for the next flush rather than dropping them
+            for (Delta delta : deltas) {
+                Counts counts = counts(delta.listingId());
+                counts.views.add(delta.views());
+                counts.bookings.add(delta.bookings());
+            }
+            log.warn("Listing counter flush failed, {} listings kept for retry: {}", deltas.size(), e.getMessage());
+            return;
+        }
+        for (Delta delta : deltas) {
+            suggestionIndex.addActivity(delta.listingId(), delta.views(), delta.bookings());
+        }
+        log.debug("Flushed view and booking counters for {} listings", deltas.size());
+    }
+
+    private Counts counts(Long listingId) {
+        return counters.computeIfAbsent(listingId, Counts::new);
+    }
+
+    private static final class Counts {
+        final Long listingId;
+        final LongAdder views = new LongAdder();
+        final LongAdder bookings = new LongAdder();
+
+        Counts(Long listingId) {
+            this.listingId = listingId;
+        }
+
+        // Adds a delta if anything accumulated since the last drain; false when idle
+        boolean drainInto(List<Delta> deltas) {
+            long viewDelta = views.sumThenReset();
+            long bookingDelta = bookings.sumThenReset();
+            if (viewDelta == 0 && bookingDelta == 0) {
+                return false;
+            }
+            deltas.add(new Delta(listingId, viewDelta, bookingDelta));
+            return true;
+        }
+    }
+
+    private record Delta(Long listingId, long views, long bookings) {
+    }
+}
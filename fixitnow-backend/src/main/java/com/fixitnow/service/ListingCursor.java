@@ -0,0 +1,31 @@
+package com.fixitnow.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for service listing pages: the sort key, the last row's value for that key
+ * and the last row's id, Base64url-encoded. Clients must treat it as an opaque token.
+ */
+public record ListingCursor(String sortKey, String value, long id) {
+
+    public String encode() {
+        String raw = sortKey + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ListingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || last <= first) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ListingCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.fixitnow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixitnow.model.OutboxEvent;
+import com.fixitnow.model.OutboxStatus;
+import com.fixitnow.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the outbox to in-process @EventListener methods with at-least-once delivery.
+ *
+ * Each round claims a batch of due events (SELECT ... FOR UPDATE SKIP LOCKED, so several nodes can
+ * run this) and pushes their availability forward by a lease before committing; an event whose
+ * node dies mid-delivery is picked up again once the lease runs out. Delivery runs outside any
+ * transaction on virtual threads, one per aggregate so a booking's events keep their order within
+ * the batch. Failed events are retried with exponential backoff and marked FAILED after
+ * outbox.max-attempts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+    
+    private static final long MAX_BACKOFF_SECONDS = 600;
+    private static final int MAX_ERROR_LENGTH = 2000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${outbox.lease-seconds:60}")
+    private long leaseSeconds;
+    
+    @Value("${outbox.retention-days:7}")
+    private long retentionDays;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void drain() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgeProcessed() {
+        Integer deleted = transactionTemplate.execute(status ->
+            outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} processed outbox events", deleted);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : due) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setAvailableAt(now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+    }
+    
+    private void dispatch(List<OutboxEvent> batch) {
+        Map<Long, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            // Events without an aggregate have no ordering constraint
+            Long key = event.getAggregateId() != null ? event.getAggregateId() : -event.getId();
+            byAggregate.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+        }
+        
+        List<Future<List<Long>>> deliveries = new ArrayList<>(byAggregate.size());
+        for (List<OutboxEvent> events : byAggregate.values()) {
+            deliveries.add(executor.submit(() -> deliverInOrder(events)));
+        }
+        
+        List<Long> delivered = new ArrayList<>();
+        for (Future<List<Long>> delivery : deliveries) {
+            try {
+                delivered.addAll(delivery.get());
+            } catch (InterruptedException e) {
+                // Undelivered events are retried once their lease expires
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Outbox delivery task failed", e.getCause());
+            }
+        }
+        if (!delivered.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markProcessed(delivered, LocalDateTime.now()));
+        }
+    }
+    
+    // Returns the ids delivered; stops at the first failure so later events of the aggregate wait for it
+    private List<Long> deliverInOrder(List<OutboxEvent> events) {
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                Class<?> type = OutboxService.EVENT_TYPES.get(event.getEventType());
+                if (type == null) {
+                    throw new IllegalStateException("Unknown outbox event type " + event.getEventType());
+                }
+                eventPublisher.publishEvent(objectMapper.readValue(event.getPayload(), type));
+                delivered.add(event.getId());
+            } catch (Exception e) {
+                LocalDateTime retryAt = LocalDateTime.now().plusSeconds(backoffSeconds(event.getAttempts()));
+                recordFailure(event, retryAt, e);
+                for (OutboxEvent later : events.subList(i + 1, events.size())) {
+                    transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markUndelivered(
+                        later.getId(), OutboxStatus.PENDING, retryAt, "Waiting for event " + event.getId()));
+                }
+                break;
+            }
+        }
+        return delivered;
+    }
+    
+    private void recordFailure(OutboxEvent event, LocalDateTime retryAt, Exception error) {
+        boolean exhausted = event.getAttempts() >= maxAttempts;
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = message;
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markUndelivered(
+            event.getId(), exhausted ? OutboxStatus.FAILED : OutboxStatus.PENDING, retryAt, lastError));
+        if (exhausted) {
+            log.error("Outbox event {} ({}) failed after {} attempts", event.getId(), event.getEventType(), event.getAttempts(), error);
+        } else {
+            log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getEventType(), event.getAttempts(), lastError);
+        }
+    }
+    
+    // 2^attempts seconds with +-25% jitter, capped
+    private static long backoffSeconds(int attempts) {
+        long base = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+        return Math.max(1, Math.round(base * ThreadLocalRandom.current().nextDouble(0.75, 1.25)));
+    }
+}
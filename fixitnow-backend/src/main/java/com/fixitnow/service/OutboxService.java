@@ -0,0 +1,52 @@
+package com.fixitnow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixitnow.dto.BookingStatusChangedEvent;
+import com.fixitnow.model.OutboxEvent;
+import com.fixitnow.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Writes events to the outbox table as part of the caller's transaction, so an event exists if and
+ * only if the change that caused it was committed. OutboxDispatcher delivers them afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    
+    // Publishable events by the type name stored with them
+    static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+        "BookingStatusChanged", BookingStatusChangedEvent.class
+    );
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Long aggregateId, Object event) {
+        String eventType = EVENT_TYPES.entrySet().stream()
+            .filter(entry -> entry.getValue() == event.getClass())
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unregistered outbox event: " + event.getClass().getName()));
+        
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+        
+        outboxEventRepository.save(OutboxEvent.builder()
+            .eventType(eventType)
+            .aggregateId(aggregateId)
+            .payload(payload)
+            .build());
+    }
+}
@@ -0,0 +1,65 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.ServiceListing;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Time-decayed popularity on a natural-log scale.
+ *
+ * Every event (listing created, viewed, booked) adds {@code weight * 2^(age / half-life)} measured
+ * from a fixed epoch, so newer events outweigh older ones without ever rewriting stored scores:
+ * ordering by the stored value is the same as ordering by the decayed sum at any point in time.
+ * The provider rating multiplies the sum by {@code 1 + rating / 5}, i.e. adds {@code ln(1 + rating / 5)}.
+ */
+public final class PopularityScore {
+
+    public static final double NEW_LISTING_WEIGHT = 5;
+    public static final double VIEW_WEIGHT = 1;
+    public static final double BOOKING_WEIGHT = 10;
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final double HALF_LIFE_SECONDS = 14 * 24 * 3600;
+    private static final double GROWTH_PER_SECOND = Math.log(2) / HALF_LIFE_SECONDS;
+
+    private PopularityScore() {
+    }
+
+    /**
+     * Log-scale contribution of a single event of the given weight at the given time.
+     */
+    public static double event(double weight, Instant at) {
+        return Math.log(weight) + GROWTH_PER_SECOND * (at.getEpochSecond() - EPOCH.getEpochSecond());
+    }
+
+    /**
+     * Starting activity for a listing without a stored score: its creation plus its lifetime
+     * views and bookings, all counted as of the creation time.
+     */
+    public static double initial(ServiceListing listing) {
+        double weight = NEW_LISTING_WEIGHT
+                + VIEW_WEIGHT * (listing.getViewCount() != null ? listing.getViewCount() : 0)
+                + BOOKING_WEIGHT * (listing.getBookingCount() != null ? listing.getBookingCount() : 0);
+        return event(weight, listing.getCreatedAt() != null ? listing.getCreatedAt() : Instant.now());
+    }
+
+    public static double activityOf(ServiceListing listing) {
+        return listing.getActivityScore() != null ? listing.getActivityScore() : initial(listing);
+    }
+
+    /**
+     * ln(e^a + e^b) without overflow: the log-scale sum of two activities.
+     */
+    public static double combine(double a, double b) {
+        return Math.max(a, b) + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+
+    public static double ratingBoost(BigDecimal rating) {
+        return rating != null ? Math.log1p(rating.doubleValue() / 5) : 0;
+    }
+
+    public static double popularity(double activity, BigDecimal rating) {
+        return activity + ratingBoost(rating);
+    }
+}
@@ -0,0 +1,117 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.ServiceListing;
+import com.fixitnow.repository.ServiceListingRepository;
+import com.fixitnow.repository.ServiceSearchEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds view and booking events into listing popularity scores. Events are merged per listing
+ * in memory and written in the background, one atomic UPDATE per touched listing and table,
+ * so the request path never waits on a score write. The in-memory search index only takes a
+ * delta once it is committed; a failed flush keeps its deltas for the next one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PopularityUpdater {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final ServiceListingRepository serviceListingRepository;
+    private final ServiceSearchEntryRepository searchEntryRepository;
+    private final ServiceListingSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // listing id -> log-scale activity not yet written
+    private final ConcurrentHashMap<Long, Double> pending = new ConcurrentHashMap<>();
+
+    public void recordView(Long listingId) {
+        record(listingId, PopularityScore.VIEW_WEIGHT);
+    }
+
+    public void recordBooking(Long listingId) {
+        recordBookings(listingId, 1);
+    }
+
+    public void recordBookings(Long listingId, int count) {
+        record(listingId, PopularityScore.BOOKING_WEIGHT * count);
+    }
+
+    @Scheduled(fixedDelayString = "${popularity.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        Map<Long, Double> deltas = new HashMap<>();
+        for (Long listingId : pending.keySet()) {
+            Double delta = pending.remove(listingId);
+            if (delta != null) {
+                deltas.put(listingId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach((listingId, delta) -> {
+                serviceListingRepository.addActivity(listingId, delta);
+                searchEntryRepository.addActivity(listingId, delta);
+            }));
+        } catch (RuntimeException e) {
+            // Keep the activity for the next flush rather than dropping it
+            deltas.forEach((listingId, delta) -> pending.merge(listingId, delta, PopularityScore::combine));
+            log.warn("Popularity flush failed, {} listings kept for retry: {}", deltas.size(), e.getMessage());
+            return;
+        }
+        deltas.forEach(searchIndex::addActivity);
+        searchCache.invalidatePopularity();
+        log.debug("Popularity updated for {} listings", deltas.size());
+    }
+
+    /**
+     * Gives listings created before popularity scoring a starting score from their creation
+     * time and lifetime counters, one transaction per batch.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = 0;
+        int batchSize;
+        do {
+            batchSize = transactionTemplate.execute(status -> {
+                List<ServiceListing> batch = serviceListingRepository.findByActivityScoreIsNull(
+                        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (ServiceListing listing : batch) {
+                    serviceListingRepository.setActivity(listing.getId(), PopularityScore.initial(listing));
+                    ids.add(listing.getId());
+                }
+                if (!ids.isEmpty()) {
+                    searchEntryRepository.backfillPopularity(ids);
+                }
+                return batch.size();
+            });
+            updated += batchSize;
+        } while (batchSize == BACKFILL_BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Popularity scores initialized for {} listings", updated);
+        }
+    }
+
+    private void record(Long listingId, double weight) {
+        pending.merge(listingId, PopularityScore.event(weight, Instant.now()), PopularityScore::combine);
+    }
+}
@@ -0,0 +1,49 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.repository.ProviderProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Spatial index of provider profiles that have coordinates, keyed by provider profile id.
+ * ProviderProfileServiceImpl keeps it in sync on profile writes; it is rebuilt on startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderLocationIndex {
+
+    private final ProviderProfileRepository providerRepository;
+
+    private final GeoGridIndex grid = new GeoGridIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        grid.clear();
+        List<ProviderProfile> providers = providerRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull();
+        providers.forEach(this::index);
+        log.info("Provider location index built: {} providers", providers.size());
+    }
+
+    public void index(ProviderProfile profile) {
+        if (profile.getLatitude() != null && profile.getLongitude() != null) {
+            grid.put(profile.getId(), profile.getLatitude(), profile.getLongitude());
+        } else {
+            grid.remove(profile.getId());
+        }
+    }
+
+    public void remove(Long providerProfileId) {
+        grid.remove(providerProfileId);
+    }
+
+    public List<GeoGridIndex.Neighbor> nearest(double latitude, double longitude, int limit, double maxRadiusKm) {
+        return grid.nearest(latitude, longitude, limit, maxRadiusKm);
+    }
+}
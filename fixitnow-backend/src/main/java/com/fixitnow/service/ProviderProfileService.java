@@ -11,6 +11,7 @@ public interface ProviderProfileService {
     List<ProviderProfileDTO> findVerifiedProviders();
     List<ProviderProfileDTO> findProvidersByCategory(Long categoryId);
     List<ProviderProfileDTO> findProvidersByLocation(String location);
+    List<ProviderProfileDTO> findNearestProviders(double latitude, double longitude, int limit, double maxRadiusKm);
     Optional<ProviderProfileDTO> findProviderById(Long id);
     Optional<ProviderProfileDTO> findProviderByUserId(Long userId);
     ProviderProfileDTO createOrUpdateProfile(Long userId, ProviderProfileDTO profileDTO);
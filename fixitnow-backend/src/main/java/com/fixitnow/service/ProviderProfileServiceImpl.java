@@ -14,7 +14,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +27,9 @@ public class ProviderProfileServiceImpl implements ProviderProfileService {
     private final UserRepository userRepository;
     private final ServiceCategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final ProviderLocationIndex locationIndex;
+    private final ServiceSearchViewService searchViewService;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     @Transactional(readOnly = true)
@@ -66,6 +71,25 @@ public class ProviderProfileServiceImpl implements ProviderProfileService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProviderProfileDTO> findNearestProviders(double latitude, double longitude, int limit, double maxRadiusKm) {
+        List<GeoGridIndex.Neighbor> neighbors = locationIndex.nearest(latitude, longitude, limit, maxRadiusKm);
+        Map<Long, ProviderProfile> profilesById = providerRepository.findAllById(
+                        neighbors.stream().map(GeoGridIndex.Neighbor::key).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ProviderProfile::getId, Function.identity()));
+        
+        return neighbors.stream()
+                .filter(neighbor -> profilesById.containsKey(neighbor.key()))
+                .map(neighbor -> {
+                    ProviderProfileDTO dto = toDTO(profilesById.get(neighbor.key()));
+                    dto.setDistanceKm(neighbor.distanceKm());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<ProviderProfileDTO> findProviderById(Long id) {
@@ -98,7 +122,14 @@ public class ProviderProfileServiceImpl implements ProviderProfileService {
             updateProfileFields(profile, profileDTO);
         }
 
-        return toDTO(providerRepository.save(profile));
+        ProviderProfile saved = providerRepository.save(profile);
+        searchViewService.refreshProvider(saved);
+        AfterCommit.run(() -> {
+            locationIndex.index(saved);
+            suggestionIndex.indexProvider(saved);
+        });
+        
+        return toDTO(saved);
     }
 
     @Override
@@ -107,6 +138,10 @@ public class ProviderProfileServiceImpl implements ProviderProfileService {
         ProviderProfile profile = providerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Provider profile not found with id: " + id));
         providerRepository.delete(profile);
+        AfterCommit.run(() -> {
+            locationIndex.remove(id);
+            suggestionIndex.removeProvider(id);
+        });
     }
 
     @Override
@@ -123,6 +158,8 @@ public class ProviderProfileServiceImpl implements ProviderProfileService {
         profile.setBio(dto.getBio());
         profile.setSkills(dto.getSkills());
         profile.setServiceArea(dto.getServiceArea());
+        profile.setLatitude(dto.getLatitude());
+        profile.setLongitude(dto.getLongitude());
         profile.setHourlyRate(dto.getHourlyRate());
         profile.setAvailable(dto.isAvailable());
         profile.setProfileImageUrl(dto.getProfileImageUrl());
@@ -0,0 +1,243 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ProviderDashboardDTO;
+import com.fixitnow.model.BookingStatus;
+import com.fixitnow.model.ProviderBookingStats;
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.repository.BookingRepository;
+import com.fixitnow.repository.ProviderBookingStatsRepository;
+import com.fixitnow.repository.ProviderProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-provider booking counters behind the provider dashboard. Booking writes add their deltas to
+ * the provider's row inside the booking transaction, so the dashboard is a primary key read rather
+ * than a count per status. A periodic job recounts every provider from the bookings table and
+ * repairs any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderStatsService {
+
+    private final ProviderBookingStatsRepository statsRepository;
+    private final BookingRepository bookingRepository;
+    private final ProviderProfileRepository providerProfileRepository;
+    private final BookingScheduleIndex scheduleIndex;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Providers whose counter row is known to exist, so dashboard reads and reconciliation skip the existence check
+    private final Set<Long> knownProviders = ConcurrentHashMap.newKeySet();
+
+    /**
+     * New PENDING bookings for the provider; call inside the transaction that inserts them.
+     */
+    public void recordCreated(Long providerId, int count) {
+        addDeltas(providerId, Map.of(BookingStatus.PENDING, (long) count), BigDecimal.ZERO);
+    }
+
+    /**
+     * A booking moved between statuses; call inside the transaction that updates it.
+     */
+    public void recordTransition(Long providerId, BookingStatus from, BookingStatus to, BigDecimal totalPrice) {
+        Map<BookingStatus, Long> deltas = new EnumMap<>(BookingStatus.class);
+        deltas.merge(from, -1L, Long::sum);
+        deltas.merge(to, 1L, Long::sum);
+        BigDecimal earnings = BigDecimal.ZERO;
+        if (to == BookingStatus.COMPLETED) {
+            earnings = earnings.add(totalPrice);
+        }
+        if (from == BookingStatus.COMPLETED) {
+            earnings = earnings.subtract(totalPrice);
+        }
+        addDeltas(providerId, deltas, earnings);
+    }
+
+    /**
+     * PENDING bookings of the provider moved to EXPIRED; call inside the transaction that expires them.
+     */
+    public void recordExpired(Long providerId, long count) {
+        Map<BookingStatus, Long> deltas = new EnumMap<>(BookingStatus.class);
+        deltas.put(BookingStatus.PENDING, -count);
+        deltas.put(BookingStatus.EXPIRED, count);
+        addDeltas(providerId, deltas, BigDecimal.ZERO);
+    }
+
+    public ProviderDashboardDTO getDashboard(Long providerId) {
+        // Outside a transaction, so the read below sees a row created by ensureRow
+        ensureRow(providerId);
+        ProviderBookingStats stats = statsRepository.findById(providerId)
+            .orElseGet(() -> new ProviderBookingStats(providerId));
+        Optional<ProviderProfile> profile = providerProfileRepository.findByUserId(providerId);
+
+        Map<BookingStatus, Long> statusCounts = counts(stats);
+        return ProviderDashboardDTO.builder()
+            .providerId(providerId)
+            .statusCounts(statusCounts)
+            .totalBookings(statusCounts.values().stream().mapToLong(Long::longValue).sum())
+            .earnings(stats.getEarnings())
+            .upcomingCount(scheduleIndex.countUpcoming(providerId, LocalDateTime.now()))
+            .rating(profile.map(ProviderProfile::getRating).orElse(BigDecimal.ZERO))
+            .totalReviews(profile.map(ProviderProfile::getTotalReviews).orElse(0))
+            .reconciledAt(stats.getReconciledAt())
+            .build();
+    }
+
+    /**
+     * Recounts every provider's counters from the bookings table.
+     */
+    @Scheduled(initialDelayString = "${dashboard.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${dashboard.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        Set<Long> providerIds = new LinkedHashSet<>(statsRepository.findAllProviderIds());
+        providerIds.addAll(bookingRepository.findDistinctProviderIds());
+
+        int repaired = 0;
+        for (Long providerId : providerIds) {
+            if (ensureRow(providerId)) {
+                continue;
+            }
+            Boolean drifted = transactionTemplate.execute(status -> {
+                // The row lock comes first: a booking write that holds it is counted once it commits,
+                // and one that waits for it applies its delta on top of the recount
+                ProviderBookingStats stats = statsRepository.findForUpdate(providerId).orElse(null);
+                if (stats == null) {
+                    return false;
+                }
+                boolean changed = copyTotals(count(providerId), stats);
+                stats.setReconciledAt(LocalDateTime.now());
+                return changed;
+            });
+            if (Boolean.TRUE.equals(drifted)) {
+                repaired++;
+                log.warn("Booking counters for provider {} drifted and were recounted", providerId);
+            }
+        }
+        log.info("Reconciled booking counters for {} providers ({} repaired) in {} ms",
+                providerIds.size(), repaired, System.currentTimeMillis() - started);
+    }
+
+    private void addDeltas(Long providerId, Map<BookingStatus, Long> deltas, BigDecimal earnings) {
+        if (applyDeltas(providerId, deltas, earnings) > 0) {
+            return;
+        }
+        // No row yet. It is created here from a count that already includes this transaction's own
+        // booking writes; a separate transaction would need a second connection while this one holds
+        // its own, which starves the pool under a burst of first bookings
+        ProviderBookingStats stats = count(providerId);
+        try {
+            // Plain JDBC rather than the repository: a failed statement there would mark the whole
+            // booking transaction rollback-only, while the database only rolls back the statement
+            jdbcTemplate.update(
+                "INSERT INTO provider_booking_stats (provider_id, pending_count, confirmed_count, completed_count, " +
+                "cancelled_count, expired_count, earnings, reconciled_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                providerId, stats.getPendingCount(), stats.getConfirmedCount(), stats.getCompletedCount(),
+                stats.getCancelledCount(), stats.getExpiredCount(), stats.getEarnings(), LocalDateTime.now());
+        } catch (DuplicateKeyException e) {
+            // A concurrent transaction created it (and has committed); its count did not include ours
+            applyDeltas(providerId, deltas, earnings);
+        }
+    }
+
+    private int applyDeltas(Long providerId, Map<BookingStatus, Long> deltas, BigDecimal earnings) {
+        return statsRepository.addDeltas(
+            providerId,
+            deltas.getOrDefault(BookingStatus.PENDING, 0L),
+            deltas.getOrDefault(BookingStatus.CONFIRMED, 0L),
+            deltas.getOrDefault(BookingStatus.COMPLETED, 0L),
+            deltas.getOrDefault(BookingStatus.CANCELLED, 0L),
+            deltas.getOrDefault(BookingStatus.EXPIRED, 0L),
+            earnings
+        );
+    }
+
+    /**
+     * Creates the provider's row, initialized by counting their committed bookings, in a
+     * transaction of its own. Bookings still uncommitted at that point add their deltas afterwards.
+     * Returns whether this call created it.
+     */
+    private boolean ensureRow(Long providerId) {
+        if (knownProviders.contains(providerId)) {
+            return false;
+        }
+        boolean created = false;
+        if (!statsRepository.existsById(providerId)) {
+            TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+            newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            try {
+                newTransaction.executeWithoutResult(status -> {
+                    ProviderBookingStats stats = count(providerId);
+                    stats.setReconciledAt(LocalDateTime.now());
+                    statsRepository.saveAndFlush(stats);
+                });
+                created = true;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent write for the same provider created it first
+            }
+        }
+        knownProviders.add(providerId);
+        return created;
+    }
+
+    private ProviderBookingStats count(Long providerId) {
+        ProviderBookingStats stats = new ProviderBookingStats(providerId);
+        for (BookingRepository.StatusTotal total : bookingRepository.sumByStatusForProvider(providerId)) {
+            long bookings = total.getBookings();
+            switch (total.getStatus()) {
+                case PENDING -> stats.setPendingCount(bookings);
+                case CONFIRMED -> stats.setConfirmedCount(bookings);
+                case COMPLETED -> {
+                    stats.setCompletedCount(bookings);
+                    stats.setEarnings(total.getTotalPrice() != null ? total.getTotalPrice() : BigDecimal.ZERO);
+                }
+                case CANCELLED -> stats.setCancelledCount(bookings);
+                case EXPIRED -> stats.setExpiredCount(bookings);
+            }
+        }
+        return stats;
+    }
+
+    // Copies the counters across and reports whether any of them differed
+    private static boolean copyTotals(ProviderBookingStats from, ProviderBookingStats to) {
+        boolean changed = from.getPendingCount() != to.getPendingCount()
+            || from.getConfirmedCount() != to.getConfirmedCount()
+            || from.getCompletedCount() != to.getCompletedCount()
+            || from.getCancelledCount() != to.getCancelledCount()
+            || from.getExpiredCount() != to.getExpiredCount()
+            || from.getEarnings().compareTo(to.getEarnings()) != 0;
+        to.setPendingCount(from.getPendingCount());
+        to.setConfirmedCount(from.getConfirmedCount());
+        to.setCompletedCount(from.getCompletedCount());
+        to.setCancelledCount(from.getCancelledCount());
+        to.setExpiredCount(from.getExpiredCount());
+        to.setEarnings(from.getEarnings());
+        return changed;
+    }
+
+    private static Map<BookingStatus, Long> counts(ProviderBookingStats stats) {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        counts.put(BookingStatus.PENDING, stats.getPendingCount());
+        counts.put(BookingStatus.CONFIRMED, stats.getConfirmedCount());
+        counts.put(BookingStatus.COMPLETED, stats.getCompletedCount());
+        counts.put(BookingStatus.CANCELLED, stats.getCancelledCount());
+        counts.put(BookingStatus.EXPIRED, stats.getExpiredCount());
+        return counts;
+    }
+}
@@ -31,6 +31,7 @@ public class ReviewServiceImpl implements ReviewService {
     private final ServiceListingRepository serviceListingRepository;
     private final UserRepository userRepository;
     private final ProviderProfileRepository providerProfileRepository;
+    private final ServiceSearchViewService searchViewService;
 
     @Override
     @Transactional(readOnly = true)
@@ -141,6 +142,7 @@ public class ReviewServiceImpl implements ReviewService {
         provider.setTotalReviews(totalReviews != null ? totalReviews : 0);
         
         providerProfileRepository.save(provider);
+        searchViewService.refreshProvider(provider);
     }
 
     private ReviewDTO toDTO(Review review) {
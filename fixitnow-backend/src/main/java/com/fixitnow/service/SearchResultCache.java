@@ -0,0 +1,259 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ServiceListingDTO;
+import com.fixitnow.dto.ServiceSearchRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of search result pages with a TTL, keyed by a canonical form of the request.
+ *
+ * Invalidation is scoped: a listing write only drops entries whose category/subcategory filter could
+ * include that listing, and a provider change only drops entries that show the provider or filter
+ * or sort on provider rating. Invalidations run immediately and again after the surrounding
+ * transaction commits, so a search that read pre-commit data cannot repopulate a stale entry.
+ */
+@Component
+public class SearchResultCache {
+
+    @Value("${search.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${search.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Bumped by every invalidation; a result computed across an invalidation is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Page<ServiceListingDTO> get(ServiceSearchRequest request) {
+        Key key = Key.of(request);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.page();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a result computed after reading {@code generationAtRead}; dropped if anything was
+     * invalidated in the meantime.
+     */
+    public void put(ServiceSearchRequest request, Page<ServiceListingDTO> page, long generationAtRead) {
+        Key key = Key.of(request);
+        Set<Long> providerIds = page.getContent().stream()
+                .map(ServiceListingDTO::getProviderProfileId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        synchronized (entries) {
+            if (generation.get() != generationAtRead) {
+                return;
+            }
+            entries.put(key, new Entry(page, providerIds, System.currentTimeMillis() + ttlSeconds * 1000));
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * A listing in one of these categories/subcategories was created, changed or removed.
+     * Pass the old and new ids when a listing moves.
+     */
+    public void invalidateListing(Collection<Long> categoryIds, Collection<Long> subcategoryIds) {
+        Set<Long> categories = withoutNulls(categoryIds);
+        Set<Long> subcategories = withoutNulls(subcategoryIds);
+        invalidate(entry -> entry.key().couldInclude(categories, subcategories));
+    }
+
+    /**
+     * Popularity scores were updated: results ordered by popularity or relevance can move.
+     */
+    public void invalidatePopularity() {
+        invalidate(entry -> "popular".equals(entry.key().sortBy()) || "relevance".equals(entry.key().sortBy()));
+    }
+
+    /**
+     * A provider's rating, review count or verified flag changed.
+     */
+    public void invalidateProvider(Long providerProfileId) {
+        invalidate(entry -> entry.value().providerIds().contains(providerProfileId)
+                || entry.key().minRating() != null
+                || entry.key().verifiedOnly()
+                || "rating".equals(entry.key().sortBy()));
+    }
+
+    public void clear() {
+        invalidate(entry -> true);
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long lookups = hitCount + missCount;
+        return Map.of(
+                "size", size,
+                "maxEntries", maxEntries,
+                "ttlSeconds", ttlSeconds,
+                "hits", hitCount,
+                "misses", missCount,
+                "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                "evictions", evictions.sum(),
+                "invalidations", invalidations.sum()
+        );
+    }
+
+    private void invalidate(Predicate<KeyedEntry> affected) {
+        removeMatching(affected);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeMatching(affected);
+                }
+            });
+        }
+    }
+
+    private void removeMatching(Predicate<KeyedEntry> affected) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> next = it.next();
+                if (affected.test(new KeyedEntry(next.getKey(), next.getValue()))) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    private static Set<Long> withoutNulls(Collection<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private record Entry(Page<ServiceListingDTO> page, Set<Long> providerIds, long expiresAt) {
+    }
+
+    private record KeyedEntry(Key key, Entry value) {
+    }
+
+    /**
+     * Canonical request: keyword reduced to its analyzed terms, strings trimmed and lower-cased,
+     * decimals without trailing zeros and defaults filled in, so equivalent requests share an entry.
+     */
+    private record Key(
+            String keyword,
+            boolean fuzzy,
+            Long categoryId,
+            Long subcategoryId,
+            String location,
+            Double latitude,
+            Double longitude,
+            Double radiusKm,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            BigDecimal minRating,
+            boolean verifiedOnly,
+            String sortBy,
+            String sortOrder,
+            int page,
+            int size
+    ) {
+
+        static Key of(ServiceSearchRequest request) {
+            String keyword = String.join(" ", SearchTextAnalyzer.analyze(request.getKeyword()));
+            return new Key(
+                    keyword.isEmpty() ? null : keyword,
+                    Boolean.TRUE.equals(request.getFuzzy()),
+                    request.getCategoryId(),
+                    request.getSubcategoryId(),
+                    lower(request.getLocation()),
+                    request.getLatitude(),
+                    request.getLongitude(),
+                    request.getRadiusKm(),
+                    canonical(request.getMinPrice()),
+                    canonical(request.getMaxPrice()),
+                    canonical(request.getMinRating()),
+                    Boolean.TRUE.equals(request.getVerifiedOnly()),
+                    effectiveSort(request),
+                    "desc".equalsIgnoreCase(request.getSortOrder()) ? "desc" : "asc",
+                    request.getPage() != null ? request.getPage() : 0,
+                    request.getSize() != null ? request.getSize() : 20
+            );
+        }
+
+        // Results can contain a listing from these categories/subcategories only if not filtered away from all of them
+        boolean couldInclude(Set<Long> categories, Set<Long> subcategories) {
+            if (categoryId != null && !categories.contains(categoryId)) {
+                return false;
+            }
+            return subcategoryId == null || subcategories.contains(subcategoryId);
+        }
+
+        // The sort ServiceListingServiceImpl actually applies, so e.g. a keyword search without sortBy
+        // is keyed (and invalidated) as a relevance search
+        private static String effectiveSort(ServiceSearchRequest request) {
+            boolean hasKeyword = request.getKeyword() != null && !request.getKeyword().isBlank();
+            boolean hasOrigin = request.getLatitude() != null && request.getLongitude() != null;
+            String sortBy = lower(request.getSortBy());
+            if (sortBy == null) {
+                return hasKeyword ? "relevance" : hasOrigin ? "distance" : "recent";
+            }
+            return switch (sortBy) {
+                case "price", "rating", "popular", "relevance", "recent", "distance" -> sortBy;
+                // Unknown sorts: the search index ranks by score (ties by popularity), the view by recency
+                default -> hasKeyword || hasOrigin ? "relevance" : "recent";
+            };
+        }
+
+        private static String lower(String value) {
+            return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static BigDecimal canonical(BigDecimal value) {
+            return value == null ? null : value.stripTrailingZeros();
+        }
+    }
+}
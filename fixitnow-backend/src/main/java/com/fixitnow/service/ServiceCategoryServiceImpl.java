@@ -19,6 +19,8 @@ public class ServiceCategoryServiceImpl implements ServiceCategoryService {
 
     private final ServiceCategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final ServiceSearchViewService searchViewService;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     @Transactional(readOnly = true)
@@ -52,7 +54,9 @@ public class ServiceCategoryServiceImpl implements ServiceCategoryService {
         ServiceCategory category = toEntity(categoryDTO);
         category.setActive(true);
         
-        return toDTO(categoryRepository.save(category));
+        ServiceCategory saved = categoryRepository.save(category);
+        AfterCommit.run(() -> suggestionIndex.indexCategory(saved));
+        return toDTO(saved);
     }
 
     @Override
@@ -64,7 +68,10 @@ public class ServiceCategoryServiceImpl implements ServiceCategoryService {
                     existingCategory.setDescription(categoryDTO.getDescription());
                     existingCategory.setIconUrl(categoryDTO.getIconUrl());
                     existingCategory.setActive(categoryDTO.isActive());
-                    return toDTO(categoryRepository.save(existingCategory));
+                    searchViewService.renameCategory(id, categoryDTO.getName());
+                    ServiceCategory saved = categoryRepository.save(existingCategory);
+                    AfterCommit.run(() -> suggestionIndex.indexCategory(saved));
+                    return toDTO(saved);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Service category not found with id: " + id));
     }
@@ -75,6 +82,7 @@ public class ServiceCategoryServiceImpl implements ServiceCategoryService {
         ServiceCategory category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service category not found with id: " + id));
         categoryRepository.delete(category);
+        AfterCommit.run(() -> suggestionIndex.removeCategory(id));
     }
 
     @Override
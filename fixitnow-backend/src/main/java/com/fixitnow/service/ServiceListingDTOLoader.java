@@ -0,0 +1,89 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ServiceListingDTO;
+import com.fixitnow.repository.ServiceListingRepository;
+import com.fixitnow.repository.ServiceListingRepository.ListingElement;
+import com.fixitnow.repository.ServiceListingRepository.ListingRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for listing pages. Loading entities and mapping them touches the provider, its user,
+ * the category and subcategory and both element collections per row; this instead runs one joined
+ * projection query for the page plus one query per element collection, so a page costs three
+ * SELECTs whatever its size.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceListingDTOLoader {
+
+    private final ServiceListingRepository serviceListingRepository;
+
+    /**
+     * DTOs for the given listing ids in the same order; ids that no longer exist are skipped.
+     */
+    public List<ServiceListingDTO> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ListingRow> rows = serviceListingRepository.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ListingRow::getId, row -> row));
+        Map<Long, List<String>> imageUrls = byListing(serviceListingRepository.findImageUrlsByListingIdIn(ids));
+        Map<Long, List<String>> availabilityDays = byListing(serviceListingRepository.findAvailabilityDaysByListingIdIn(ids));
+
+        List<ServiceListingDTO> dtos = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ListingRow row = rows.get(id);
+            if (row != null) {
+                dtos.add(toDTO(row, imageUrls.getOrDefault(id, new ArrayList<>()),
+                        availabilityDays.getOrDefault(id, new ArrayList<>())));
+            }
+        }
+        return dtos;
+    }
+
+    public Optional<ServiceListingDTO> load(Long id) {
+        return load(List.of(id)).stream().findFirst();
+    }
+
+    private static Map<Long, List<String>> byListing(List<ListingElement> elements) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (ListingElement element : elements) {
+            grouped.computeIfAbsent(element.getListingId(), k -> new ArrayList<>()).add(element.getElement());
+        }
+        return grouped;
+    }
+
+    private static ServiceListingDTO toDTO(ListingRow row, List<String> imageUrls, List<String> availabilityDays) {
+        return ServiceListingDTO.builder()
+                .id(row.getId())
+                .providerProfileId(row.getProviderProfileId())
+                .providerName(row.getProviderName())
+                .providerRating(row.getProviderRating())
+                .providerTotalReviews(row.getProviderTotalReviews())
+                .providerImageUrl(row.getProviderImageUrl())
+                .categoryId(row.getCategoryId())
+                .categoryName(row.getCategoryName())
+                .subcategoryId(row.getSubcategoryId())
+                .subcategoryName(row.getSubcategoryName())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .price(row.getPrice())
+                .pricingType(row.getPricingType())
+                .serviceLocation(row.getServiceLocation())
+                .latitude(row.getLatitude())
+                .longitude(row.getLongitude())
+                .imageUrls(imageUrls)
+                .estimatedDuration(row.getEstimatedDuration())
+                .availabilityDays(availabilityDays)
+                .active(Boolean.TRUE.equals(row.getActive()))
+                .viewCount(row.getViewCount())
+                .bookingCount(row.getBookingCount())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+}
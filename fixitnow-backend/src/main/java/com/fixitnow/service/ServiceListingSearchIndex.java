@@ -0,0 +1,720 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.FacetCountDTO;
+import com.fixitnow.dto.SearchFacetsDTO;
+import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.model.PricingType;
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.model.ServiceListing;
+import com.fixitnow.repository.ServiceListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over active service listings, ranked with BM25.
+ * Title, category, subcategory and description terms are indexed with per-field weights.
+ * Alongside the postings it keeps one bitmap per facet value (category, subcategory, pricing type,
+ * price band) over document ordinals, so facet counts for a query are bitmap intersections, and a
+ * lat/lng grid so radius filters only touch nearby listings. Fuzzy queries expand each term to
+ * nearby title, subcategory and provider skill terms through a trigram index.
+ * ServiceListingServiceImpl keeps it in sync on create/update/delete; it is rebuilt from the
+ * database on startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceListingSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Upper bounds of the price bands used for faceting; anything above the last is "500+"
+    private static final int[] PRICE_BAND_LIMITS = {50, 100, 250, 500};
+
+    private final ServiceListingRepository serviceListingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (document ordinal -> weighted term frequency)
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+    // ordinal -> document (null once removed); ordinals are never reused
+    private final List<IndexedListing> documents = new ArrayList<>();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> bySubcategory = new HashMap<>();
+    private final Map<Long, BitSet> byProvider = new HashMap<>();
+    private final Map<PricingType, BitSet> byPricingType = new EnumMap<>(PricingType.class);
+    private final Map<String, BitSet> byPriceBand = new LinkedHashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, String> subcategoryNames = new HashMap<>();
+    private final GeoGridIndex locations = new GeoGridIndex(); // keyed by ordinal
+    private final TrigramIndex vocabulary = new TrigramIndex(); // title, subcategory and skill terms
+    private final Map<Long, Set<String>> providerSkills = new HashMap<>();
+    private final Map<String, Set<Long>> providersBySkill = new HashMap<>();
+
+    private long totalLength;
+    private int liveDocuments;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        clear();
+        long lastId = 0L;
+        List<ServiceListing> batch;
+        do {
+            batch = serviceListingRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ServiceListing listing : batch) {
+                index(listing);
+                lastId = listing.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("Search index built: {} listings, {} terms in {} ms",
+                liveDocuments, postings.size(), System.currentTimeMillis() - started);
+    }
+
+    public void index(ServiceListing listing) {
+        if (listing == null || listing.getId() == null) {
+            return;
+        }
+        if (!listing.isActive()) {
+            remove(listing.getId());
+            return;
+        }
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addTerms(termFrequencies, listing.getTitle(), TITLE_WEIGHT);
+        addTerms(termFrequencies, listing.getCategory() != null ? listing.getCategory().getName() : null, CATEGORY_WEIGHT);
+        addTerms(termFrequencies, listing.getSubcategory() != null ? listing.getSubcategory().getName() : null, CATEGORY_WEIGHT);
+        addTerms(termFrequencies, listing.getDescription(), DESCRIPTION_WEIGHT);
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        Set<String> titleTerms = new HashSet<>(SearchTextAnalyzer.analyze(listing.getTitle()));
+        Set<String> fuzzyTerms = new HashSet<>(titleTerms);
+        if (listing.getSubcategory() != null) {
+            fuzzyTerms.addAll(SearchTextAnalyzer.analyze(listing.getSubcategory().getName()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(listing.getId());
+            if (ordinal != null) {
+                unlink(ordinal);
+            } else {
+                ordinal = documents.size();
+                documents.add(null);
+                ordinals.put(listing.getId(), ordinal);
+            }
+
+            ProviderProfile provider = listing.getProviderProfile();
+            IndexedListing document = new IndexedListing(
+                    listing.getId(),
+                    provider != null ? provider.getId() : null,
+                    provider != null ? provider.getRating() : null,
+                    provider != null && provider.isVerified(),
+                    listing.getCategory() != null ? listing.getCategory().getId() : null,
+                    listing.getSubcategory() != null ? listing.getSubcategory().getId() : null,
+                    listing.getPrice(),
+                    listing.getPricingType(),
+                    listing.getServiceLocation() != null ? listing.getServiceLocation().toLowerCase(Locale.ROOT) : null,
+                    listing.getLatitude(),
+                    listing.getLongitude(),
+                    listing.getCreatedAt(),
+                    PopularityScore.activityOf(listing),
+                    termFrequencies,
+                    titleTerms,
+                    fuzzyTerms,
+                    length
+            );
+            documents.set(ordinal, document);
+            fuzzyTerms.forEach(vocabulary::add);
+            if (provider != null) {
+                setProviderSkills(provider.getId(), provider.getSkills());
+            }
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(ordinal, entry.getValue());
+            }
+            live.set(ordinal);
+            if (document.providerProfileId() != null) {
+                byProvider.computeIfAbsent(document.providerProfileId(), k -> new BitSet()).set(ordinal);
+            }
+            if (document.categoryId() != null) {
+                byCategory.computeIfAbsent(document.categoryId(), k -> new BitSet()).set(ordinal);
+                categoryNames.put(document.categoryId(), listing.getCategory().getName());
+            }
+            if (document.subcategoryId() != null) {
+                bySubcategory.computeIfAbsent(document.subcategoryId(), k -> new BitSet()).set(ordinal);
+                subcategoryNames.put(document.subcategoryId(), listing.getSubcategory().getName());
+            }
+            if (document.pricingType() != null) {
+                byPricingType.computeIfAbsent(document.pricingType(), k -> new BitSet()).set(ordinal);
+            }
+            if (document.price() != null) {
+                byPriceBand.computeIfAbsent(priceBand(document.price()), k -> new BitSet()).set(ordinal);
+            }
+            if (document.latitude() != null && document.longitude() != null) {
+                locations.put(ordinal, document.latitude(), document.longitude());
+            }
+            totalLength += length;
+            liveDocuments++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long listingId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(listingId);
+            if (ordinal != null) {
+                unlink(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Relabels the category facet and re-indexes its listings under the new name's terms.
+     */
+    public void renameCategory(Long categoryId, String name) {
+        lock.writeLock().lock();
+        try {
+            String previous = categoryNames.get(categoryId);
+            if (previous != null) {
+                categoryNames.put(categoryId, name);
+                replaceNameTerms(byCategory.get(categoryId), previous, name, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Relabels the subcategory facet and re-indexes its listings under the new name's terms.
+     */
+    public void renameSubcategory(Long subcategoryId, String name) {
+        lock.writeLock().lock();
+        try {
+            String previous = subcategoryNames.get(subcategoryId);
+            if (previous != null) {
+                subcategoryNames.put(subcategoryId, name);
+                replaceNameTerms(bySubcategory.get(subcategoryId), previous, name, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Folds a log-scale activity delta into a listing's popularity (see PopularityScore).
+     */
+    public void addActivity(Long listingId, double delta) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(listingId);
+            if (ordinal != null && documents.get(ordinal) != null) {
+                IndexedListing document = documents.get(ordinal);
+                documents.set(ordinal, document.withActivity(PopularityScore.combine(document.activity(), delta)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a provider's new rating, verification flag and skills to all of their indexed listings.
+     */
+    public void updateProvider(ProviderProfile provider) {
+        lock.writeLock().lock();
+        try {
+            BitSet providerListings = byProvider.get(provider.getId());
+            if (providerListings == null) {
+                return;
+            }
+            for (int i = providerListings.nextSetBit(0); i >= 0; i = providerListings.nextSetBit(i + 1)) {
+                documents.set(i, documents.get(i).withProvider(provider.getRating(), provider.isVerified()));
+            }
+            setProviderSkills(provider.getId(), provider.getSkills());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all active listings matching the request keyword, radius and filters.
+     * Ordered by BM25 score (ties broken by popularity) for keyword queries and by distance for
+     * radius queries, unless the request asks for "price", "recent", "distance" or "popular".
+     */
+    public List<Long> search(ServiceSearchRequest request) {
+        boolean hasKeyword = request.getKeyword() != null && !request.getKeyword().isBlank();
+        boolean hasOrigin = request.getLatitude() != null && request.getLongitude() != null;
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> terms = expandTerms(request);
+            BitSet matching = matchingSet(request, terms);
+            Map<Integer, Double> scores = hasKeyword ? score(terms, Boolean.TRUE.equals(request.getFuzzy()), matching) : Map.of();
+
+            List<ScoredListing> hits = new ArrayList<>(matching.cardinality());
+            for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+                IndexedListing document = documents.get(i);
+                double distance = hasOrigin && document.latitude() != null
+                        ? GeoGridIndex.distanceKm(request.getLatitude(), request.getLongitude(), document.latitude(), document.longitude())
+                        : Double.MAX_VALUE;
+                hits.add(new ScoredListing(document, scores.getOrDefault(i, 0.0), distance));
+            }
+
+            String sortBy = request.getSortBy();
+            if (sortBy == null) {
+                sortBy = hasKeyword ? "relevance" : hasOrigin ? "distance" : "recent";
+            }
+            hits.sort(comparator(sortBy, request.getSortOrder()));
+
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (ScoredListing hit : hits) {
+                ids.add(hit.document().id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts matches per category, subcategory, pricing type and price band for the given request.
+     * The matching set is computed once as a bitmap and intersected with each facet value's bitmap.
+     */
+    public SearchFacetsDTO facets(ServiceSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = matchingSet(request);
+            return SearchFacetsDTO.builder()
+                    .totalMatches(matching.cardinality())
+                    .categories(countFacet(byCategory, matching, categoryNames::get))
+                    .subcategories(countFacet(bySubcategory, matching, subcategoryNames::get))
+                    .pricingTypes(countFacet(byPricingType, matching, PricingType::name))
+                    .priceRanges(countFacet(byPriceBand, matching, band -> band))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of active listings matching the request's keyword, radius and filters.
+     */
+    public int count(ServiceSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            return matchingSet(request).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            ordinals.clear();
+            live.clear();
+            byCategory.clear();
+            bySubcategory.clear();
+            byProvider.clear();
+            byPricingType.clear();
+            byPriceBand.clear();
+            locations.clear();
+            vocabulary.clear();
+            providerSkills.clear();
+            providersBySkill.clear();
+            totalLength = 0;
+            liveDocuments = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void unlink(int ordinal) {
+        IndexedListing previous = documents.get(ordinal);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.termFrequencies().keySet()) {
+            removePosting(term, ordinal);
+        }
+        live.clear(ordinal);
+        previous.fuzzyTerms().forEach(vocabulary::remove);
+        clearBit(byProvider, previous.providerProfileId(), ordinal);
+        if (previous.providerProfileId() != null && !byProvider.containsKey(previous.providerProfileId())) {
+            setProviderSkills(previous.providerProfileId(), null);
+        }
+        clearBit(byCategory, previous.categoryId(), ordinal);
+        clearBit(bySubcategory, previous.subcategoryId(), ordinal);
+        clearBit(byPricingType, previous.pricingType(), ordinal);
+        clearBit(byPriceBand, previous.price() != null ? priceBand(previous.price()) : null, ordinal);
+        locations.remove(ordinal);
+        documents.set(ordinal, null);
+        totalLength -= previous.length();
+        liveDocuments--;
+    }
+
+    // Caller must hold the write lock
+    private void removePosting(String term, int ordinal) {
+        Map<Integer, Integer> termPostings = postings.get(term);
+        if (termPostings != null) {
+            termPostings.remove(ordinal);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Swaps a category or subcategory name's terms for the new name's in each affected listing's
+     * postings and length; a subcategory name also feeds the fuzzy vocabulary. Caller must hold
+     * the write lock.
+     */
+    private void replaceNameTerms(BitSet affected, String previousName, String name, boolean subcategory) {
+        if (affected == null || previousName.equals(name)) {
+            return;
+        }
+        for (int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i + 1)) {
+            IndexedListing document = documents.get(i);
+            Map<String, Integer> termFrequencies = new HashMap<>(document.termFrequencies());
+            addTerms(termFrequencies, previousName, -CATEGORY_WEIGHT);
+            termFrequencies.values().removeIf(frequency -> frequency <= 0);
+            addTerms(termFrequencies, name, CATEGORY_WEIGHT);
+
+            for (String term : document.termFrequencies().keySet()) {
+                if (!termFrequencies.containsKey(term)) {
+                    removePosting(term, i);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(i, entry.getValue());
+            }
+            int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+            totalLength += length - document.length();
+
+            Set<String> fuzzyTerms = document.fuzzyTerms();
+            if (subcategory) {
+                fuzzyTerms = new HashSet<>(document.titleTerms());
+                fuzzyTerms.addAll(SearchTextAnalyzer.analyze(name));
+                document.fuzzyTerms().forEach(vocabulary::remove);
+                fuzzyTerms.forEach(vocabulary::add);
+            }
+            documents.set(i, document.withTerms(termFrequencies, fuzzyTerms, length));
+        }
+    }
+
+    // Caller must hold the read lock. Each expanded term contributes its BM25 score times its weight.
+    private Map<Integer, Double> score(Map<String, Double> terms, boolean fuzzy, BitSet matching) {
+        double averageLength = liveDocuments == 0 ? 0 : (double) totalLength / liveDocuments;
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Double> term : terms.entrySet()) {
+            Map<Integer, Integer> termPostings = postings.get(term.getKey());
+            if (termPostings != null) {
+                double idf = idf(termPostings.size());
+                for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+                    if (matching.get(posting.getKey())) {
+                        scores.merge(posting.getKey(), term.getValue() * idf
+                                * bm25(posting.getValue(), documents.get(posting.getKey()).length(), averageLength), Double::sum);
+                    }
+                }
+            }
+            if (fuzzy) {
+                // A provider skill counts like a single description mention on each of the provider's listings
+                BitSet skilled = skillMatches(term.getKey());
+                double idf = idf(skilled.cardinality());
+                skilled.and(matching);
+                for (int i = skilled.nextSetBit(0); i >= 0; i = skilled.nextSetBit(i + 1)) {
+                    scores.merge(i, term.getValue() * idf
+                            * bm25(DESCRIPTION_WEIGHT, documents.get(i).length(), averageLength), Double::sum);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double bm25(double tf, int length, double averageLength) {
+        double norm = K1 * (1 - B + B * length / averageLength);
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    /**
+     * Analyzed query terms mapped to a weight of 1. With fuzzy on, each term is also expanded to
+     * vocabulary terms within one edit (two for terms longer than five characters), weighted
+     * 1 / (1 + distance) so exact hits still rank first. Caller must hold the read lock.
+     */
+    private Map<String, Double> expandTerms(ServiceSearchRequest request) {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        if (request.getKeyword() == null || request.getKeyword().isBlank()) {
+            return terms;
+        }
+        boolean fuzzy = Boolean.TRUE.equals(request.getFuzzy());
+        for (String term : SearchTextAnalyzer.analyze(request.getKeyword())) {
+            terms.merge(term, 1.0, Math::max);
+            if (fuzzy) {
+                int maxEdits = term.length() <= 3 ? 0 : term.length() <= 5 ? 1 : 2;
+                for (TrigramIndex.Match match : vocabulary.similar(term, maxEdits)) {
+                    terms.merge(match.term(), 1.0 / (1 + match.distance()), Math::max);
+                }
+            }
+        }
+        return terms;
+    }
+
+    // Caller must hold the read lock. Listings of providers that list the term as a skill.
+    private BitSet skillMatches(String term) {
+        BitSet matches = new BitSet();
+        for (Long providerProfileId : providersBySkill.getOrDefault(term, Set.of())) {
+            BitSet providerListings = byProvider.get(providerProfileId);
+            if (providerListings != null) {
+                matches.or(providerListings);
+            }
+        }
+        return matches;
+    }
+
+    // Caller must hold the write lock
+    private void setProviderSkills(Long providerProfileId, String skills) {
+        Set<String> terms = new HashSet<>(SearchTextAnalyzer.analyze(skills != null ? skills.replace(',', ' ') : null));
+        Set<String> previous = terms.isEmpty() ? providerSkills.remove(providerProfileId) : providerSkills.put(providerProfileId, terms);
+        if (previous != null) {
+            for (String term : previous) {
+                vocabulary.remove(term);
+                Set<Long> providers = providersBySkill.get(term);
+                if (providers != null && providers.remove(providerProfileId) && providers.isEmpty()) {
+                    providersBySkill.remove(term);
+                }
+            }
+        }
+        for (String term : terms) {
+            vocabulary.add(term);
+            providersBySkill.computeIfAbsent(term, t -> new HashSet<>()).add(providerProfileId);
+        }
+    }
+
+    // Caller must hold the read lock
+    private BitSet matchingSet(ServiceSearchRequest request) {
+        return matchingSet(request, expandTerms(request));
+    }
+
+    // Caller must hold the read lock
+    private BitSet matchingSet(ServiceSearchRequest request, Map<String, Double> terms) {
+        BitSet matching = (BitSet) live.clone();
+        if (request.getCategoryId() != null) {
+            matching.and(byCategory.getOrDefault(request.getCategoryId(), new BitSet()));
+        }
+        if (request.getSubcategoryId() != null) {
+            matching.and(bySubcategory.getOrDefault(request.getSubcategoryId(), new BitSet()));
+        }
+        if (request.getKeyword() != null && !request.getKeyword().isBlank()) {
+            BitSet keywordMatches = new BitSet();
+            for (String term : terms.keySet()) {
+                Map<Integer, Integer> termPostings = postings.get(term);
+                if (termPostings != null) {
+                    termPostings.keySet().forEach(keywordMatches::set);
+                }
+                if (Boolean.TRUE.equals(request.getFuzzy())) {
+                    keywordMatches.or(skillMatches(term));
+                }
+            }
+            matching.and(keywordMatches);
+        }
+        if (request.getLatitude() != null && request.getLongitude() != null && request.getRadiusKm() != null) {
+            BitSet nearby = new BitSet();
+            locations.forEachWithin(request.getLatitude(), request.getLongitude(), request.getRadiusKm(),
+                    ordinal -> nearby.set((int) ordinal));
+            matching.and(nearby);
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null
+                || request.getMinRating() != null || Boolean.TRUE.equals(request.getVerifiedOnly())
+                || (request.getLocation() != null && !request.getLocation().isEmpty())) {
+            for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+                if (!matchesFilters(documents.get(i), request)) {
+                    matching.clear(i);
+                }
+            }
+        }
+        return matching;
+    }
+
+    private static <K> List<FacetCountDTO> countFacet(Map<K, BitSet> bitmaps, BitSet matching, Function<K, String> label) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (Map.Entry<K, BitSet> entry : bitmaps.entrySet()) {
+            if (!entry.getValue().intersects(matching)) {
+                continue;
+            }
+            BitSet intersection = (BitSet) entry.getValue().clone();
+            intersection.and(matching);
+            counts.add(FacetCountDTO.builder()
+                    .value(String.valueOf(entry.getKey()))
+                    .label(label.apply(entry.getKey()))
+                    .count(intersection.cardinality())
+                    .build());
+        }
+        counts.sort(Comparator.comparingLong(FacetCountDTO::getCount).reversed());
+        return counts;
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> bitmaps, K key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        BitSet bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static String priceBand(BigDecimal price) {
+        int lower = 0;
+        for (int limit : PRICE_BAND_LIMITS) {
+            if (price.compareTo(BigDecimal.valueOf(limit)) < 0) {
+                return lower + "-" + limit;
+            }
+            lower = limit;
+        }
+        return lower + "+";
+    }
+
+    private static void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String term : SearchTextAnalyzer.analyze(text)) {
+            termFrequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static boolean matchesFilters(IndexedListing document, ServiceSearchRequest request) {
+        if (request.getCategoryId() != null && !request.getCategoryId().equals(document.categoryId())) {
+            return false;
+        }
+        if (request.getSubcategoryId() != null && !request.getSubcategoryId().equals(document.subcategoryId())) {
+            return false;
+        }
+        if (request.getMinPrice() != null && (document.price() == null || document.price().compareTo(request.getMinPrice()) < 0)) {
+            return false;
+        }
+        if (request.getMaxPrice() != null && (document.price() == null || document.price().compareTo(request.getMaxPrice()) > 0)) {
+            return false;
+        }
+        if (request.getMinRating() != null
+                && (document.providerRating() == null || document.providerRating().compareTo(request.getMinRating()) < 0)) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(request.getVerifiedOnly()) && !document.providerVerified()) {
+            return false;
+        }
+        if (request.getLocation() != null && !request.getLocation().isEmpty()) {
+            return document.location() != null
+                    && document.location().contains(request.getLocation().toLowerCase(Locale.ROOT));
+        }
+        return true;
+    }
+
+    private static Comparator<ScoredListing> comparator(String sortBy, String sortOrder) {
+        Comparator<ScoredListing> byPopularity = Comparator.comparingDouble(
+                (ScoredListing hit) -> hit.document().popularity()).reversed();
+        Comparator<ScoredListing> byScore = Comparator.comparingDouble(ScoredListing::score).reversed()
+                .thenComparing(byPopularity)
+                .thenComparing(hit -> hit.document().id(), Comparator.reverseOrder());
+        switch (sortBy.toLowerCase(Locale.ROOT)) {
+            case "price":
+                Comparator<ScoredListing> byPrice = Comparator.comparing(hit -> hit.document().price(),
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                return ("desc".equalsIgnoreCase(sortOrder) ? byPrice.reversed() : byPrice).thenComparing(byScore);
+            case "recent":
+                return Comparator.<ScoredListing, Instant>comparing(hit -> hit.document().createdAt(),
+                        Comparator.nullsLast(Comparator.reverseOrder())).thenComparing(byScore);
+            case "distance":
+                return Comparator.comparingDouble(ScoredListing::distanceKm).thenComparing(byScore);
+            case "rating":
+                // Always highest rated first, like the database path; unrated providers last
+                return Comparator.comparing((ScoredListing hit) -> hit.document().providerRating(),
+                        Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())).thenComparing(byScore);
+            case "popular":
+                return byPopularity.thenComparing(byScore);
+            default:
+                return byScore;
+        }
+    }
+
+    record IndexedListing(
+            Long id,
+            Long providerProfileId,
+            BigDecimal providerRating,
+            boolean providerVerified,
+            Long categoryId,
+            Long subcategoryId,
+            BigDecimal price,
+            PricingType pricingType,
+            String location,
+            Double latitude,
+            Double longitude,
+            Instant createdAt,
+            double activity,
+            Map<String, Integer> termFrequencies,
+            Set<String> titleTerms,
+            Set<String> fuzzyTerms,
+            int length
+    ) {
+        IndexedListing withProvider(BigDecimal rating, boolean verified) {
+            return new IndexedListing(id, providerProfileId, rating, verified, categoryId, subcategoryId, price,
+                    pricingType, location, latitude, longitude, createdAt, activity, termFrequencies, titleTerms, fuzzyTerms, length);
+        }
+
+        IndexedListing withActivity(double updatedActivity) {
+            return new IndexedListing(id, providerProfileId, providerRating, providerVerified, categoryId, subcategoryId, price,
+                    pricingType, location, latitude, longitude, createdAt, updatedActivity, termFrequencies, titleTerms, fuzzyTerms, length);
+        }
+
+        IndexedListing withTerms(Map<String, Integer> updatedTerms, Set<String> updatedFuzzyTerms, int updatedLength) {
+            return new IndexedListing(id, providerProfileId, providerRating, providerVerified, categoryId, subcategoryId, price,
+                    pricingType, location, latitude, longitude, createdAt, activity, updatedTerms, titleTerms,
+                    updatedFuzzyTerms, updatedLength);
+        }
+
+        double popularity() {
+            return PopularityScore.popularity(activity, providerRating);
+        }
+    }
+
+    private record ScoredListing(IndexedListing document, double score, double distanceKm) {
+    }
+}
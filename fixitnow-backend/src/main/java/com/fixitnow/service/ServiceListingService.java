@@ -1,7 +1,10 @@
 package com.fixitnow.service;
 
+import com.fixitnow.dto.CursorPageDTO;
+import com.fixitnow.dto.SearchFacetsDTO;
 import com.fixitnow.dto.ServiceListingDTO;
 import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.dto.SuggestionDTO;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -19,6 +22,12 @@ public interface ServiceListingService {
     
     Page<ServiceListingDTO> searchServices(ServiceSearchRequest searchRequest);
     
+    CursorPageDTO<ServiceListingDTO> scrollServices(ServiceSearchRequest searchRequest);
+    
+    SearchFacetsDTO findSearchFacets(ServiceSearchRequest searchRequest);
+    
+    List<SuggestionDTO> suggest(String query, int limit);
+    
     Optional<ServiceListingDTO> findServiceById(Long id);
     
     ServiceListingDTO createService(ServiceListingDTO serviceDTO, Long userId);
@@ -1,20 +1,36 @@
 package com.fixitnow.service;
 
+import com.fixitnow.dto.CursorPageDTO;
+import com.fixitnow.dto.SearchFacetsDTO;
 import com.fixitnow.dto.ServiceListingDTO;
 import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.dto.SuggestionDTO;
 import com.fixitnow.exception.ResourceNotFoundException;
 import com.fixitnow.model.*;
 import com.fixitnow.repository.*;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,60 +42,125 @@ public class ServiceListingServiceImpl implements ServiceListingService {
     private final ProviderProfileRepository providerProfileRepository;
     private final ServiceCategoryRepository categoryRepository;
     private final ServiceSubcategoryRepository subcategoryRepository;
+    private final ServiceListingSearchIndex searchIndex;
+    private final ServiceSearchEntryRepository searchEntryRepository;
+    private final ServiceSearchViewService searchViewService;
+    private final SuggestionIndex suggestionIndex;
+    private final SearchResultCache searchCache;
+    private final PopularityUpdater popularityUpdater;
+    private final ListingCounterService listingCounterService;
+    private final ServiceListingDTOLoader dtoLoader;
 
     @Override
     @Transactional(readOnly = true)
     public List<ServiceListingDTO> findServicesByProvider(Long providerProfileId) {
-        return serviceListingRepository.findByProviderProfileIdAndActiveTrue(providerProfileId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return dtoLoader.load(serviceListingRepository.findActiveIdsByProviderProfileId(providerProfileId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceListingDTO> findAllActiveServices(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return serviceListingRepository.findByActiveTrue(pageable).map(this::toDTO);
+        return loadPage(serviceListingRepository.findActiveIds(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceListingDTO> findServicesByCategory(Long categoryId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return serviceListingRepository.findByCategoryIdAndActiveTrue(categoryId, pageable).map(this::toDTO);
+        return loadPage(serviceListingRepository.findActiveIdsByCategoryId(categoryId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceListingDTO> findServicesBySubcategory(Long subcategoryId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return serviceListingRepository.findBySubcategoryIdAndActiveTrue(subcategoryId, pageable).map(this::toDTO);
+        return loadPage(serviceListingRepository.findActiveIdsBySubcategoryId(subcategoryId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceListingDTO> searchServices(ServiceSearchRequest searchRequest) {
-        Sort sort = createSort(searchRequest.getSortBy(), searchRequest.getSortOrder());
-        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize(), sort);
+        Page<ServiceListingDTO> cached = searchCache.get(searchRequest);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long generation = searchCache.generation();
+        boolean hasKeyword = searchRequest.getKeyword() != null && !searchRequest.getKeyword().isBlank();
+        boolean hasOrigin = searchRequest.getLatitude() != null && searchRequest.getLongitude() != null;
+        Page<ServiceListingDTO> results = hasKeyword || hasOrigin
+                ? searchIndexed(searchRequest)
+                : searchView(searchRequest);
+        searchCache.put(searchRequest, results, generation);
+        return results;
+    }
+
+    private Page<ServiceListingDTO> searchView(ServiceSearchRequest searchRequest) {
+        // Filter and sort on the flattened search view, then load only the page's listings
+        ListingSortKey sortKey = listingSortKey(searchRequest.getSortBy(), searchRequest.getSortOrder());
+        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize(),
+                Sort.by(sortKey.direction(), sortKey.attribute(), "id"));
+        Page<ServiceSearchEntry> entries = searchEntryRepository.findAll(searchSpecification(searchRequest), pageable);
+        
+        List<Long> ids = entries.getContent().stream().map(ServiceSearchEntry::getId).collect(Collectors.toList());
+        return new PageImpl<>(dtoLoader.load(ids), pageable, entries.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ServiceListingDTO> scrollServices(ServiceSearchRequest searchRequest) {
+        boolean hasKeyword = searchRequest.getKeyword() != null && !searchRequest.getKeyword().isBlank();
+        boolean hasOrigin = searchRequest.getLatitude() != null && searchRequest.getLongitude() != null;
+        if (hasKeyword || hasOrigin) {
+            return scrollIndexed(searchRequest);
+        }
         
-        if (searchRequest.getKeyword() != null && !searchRequest.getKeyword().isEmpty()) {
-            return serviceListingRepository.searchByKeyword(searchRequest.getKeyword(), pageable).map(this::toDTO);
+        ListingSortKey sortKey = listingSortKey(searchRequest.getSortBy(), searchRequest.getSortOrder());
+        Specification<ServiceSearchEntry> specification = searchSpecification(searchRequest);
+        if (searchRequest.getCursor() != null && !searchRequest.getCursor().isEmpty()) {
+            ListingCursor cursor = ListingCursor.decode(searchRequest.getCursor());
+            if (!cursor.sortKey().equals(sortKey.name())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            specification = specification.and(afterCursor(sortKey, cursor));
         }
         
-        return serviceListingRepository.searchServices(
-                searchRequest.getCategoryId(),
-                searchRequest.getSubcategoryId(),
-                searchRequest.getLocation(),
-                searchRequest.getMinPrice(),
-                searchRequest.getMaxPrice(),
-                pageable
-        ).map(this::toDTO);
+        // Slice fetches size + 1 rows to detect a next page and never issues a count query
+        Sort sort = Sort.by(sortKey.direction(), sortKey.attribute(), "id");
+        Slice<ServiceSearchEntry> slice = searchEntryRepository.findBy(specification,
+                query -> query.slice(PageRequest.of(0, searchRequest.getSize(), sort)));
+        
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            ServiceSearchEntry last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new ListingCursor(sortKey.name(), sortKey.valueOf(last), last.getId()).encode();
+        }
+        List<Long> ids = slice.getContent().stream().map(ServiceSearchEntry::getId).collect(Collectors.toList());
+        return CursorPageDTO.<ServiceListingDTO>builder()
+                .content(dtoLoader.load(ids))
+                .size(searchRequest.getSize())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .approximateTotal(Boolean.TRUE.equals(searchRequest.getIncludeTotal())
+                        ? (long) searchIndex.count(searchRequest) : null)
+                .build();
+    }
+
+    @Override
+    public SearchFacetsDTO findSearchFacets(ServiceSearchRequest searchRequest) {
+        return searchIndex.facets(searchRequest);
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, limit);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ServiceListingDTO> findServiceById(Long id) {
-        return serviceListingRepository.findById(id).map(this::toDTO);
+        return dtoLoader.load(id);
     }
 
     @Override
@@ -106,15 +187,28 @@ public class ServiceListingServiceImpl implements ServiceListingService {
                 .price(serviceDTO.getPrice())
                 .pricingType(serviceDTO.getPricingType())
                 .serviceLocation(serviceDTO.getServiceLocation())
+                .latitude(serviceDTO.getLatitude() != null ? serviceDTO.getLatitude() : providerProfile.getLatitude())
+                .longitude(serviceDTO.getLongitude() != null ? serviceDTO.getLongitude() : providerProfile.getLongitude())
                 .imageUrls(serviceDTO.getImageUrls())
                 .estimatedDuration(serviceDTO.getEstimatedDuration())
                 .availabilityDays(serviceDTO.getAvailabilityDays())
                 .active(true)
                 .viewCount(0)
                 .bookingCount(0)
+                .activityScore(PopularityScore.event(PopularityScore.NEW_LISTING_WEIGHT, Instant.now()))
                 .build();
         
-        return toDTO(serviceListingRepository.save(serviceListing));
+        ServiceListing saved = serviceListingRepository.save(serviceListing);
+        searchViewService.refreshListing(saved);
+        List<Long> categoryIds = Arrays.asList(category.getId());
+        List<Long> subcategoryIds = Arrays.asList(subcategory != null ? subcategory.getId() : null);
+        AfterCommit.run(() -> {
+            searchIndex.index(saved);
+            suggestionIndex.indexListing(saved);
+            searchCache.invalidateListing(categoryIds, subcategoryIds);
+        });
+        
+        return toDTO(saved);
     }
 
     @Override
@@ -128,11 +222,17 @@ public class ServiceListingServiceImpl implements ServiceListingService {
             throw new AccessDeniedException("You don't have permission to update this service");
         }
         
+        Long previousCategoryId = serviceListing.getCategory().getId();
+        Long previousSubcategoryId = serviceListing.getSubcategory() != null ? serviceListing.getSubcategory().getId() : null;
         serviceListing.setTitle(serviceDTO.getTitle());
         serviceListing.setDescription(serviceDTO.getDescription());
         serviceListing.setPrice(serviceDTO.getPrice());
         serviceListing.setPricingType(serviceDTO.getPricingType());
         serviceListing.setServiceLocation(serviceDTO.getServiceLocation());
+        if (serviceDTO.getLatitude() != null && serviceDTO.getLongitude() != null) {
+            serviceListing.setLatitude(serviceDTO.getLatitude());
+            serviceListing.setLongitude(serviceDTO.getLongitude());
+        }
         serviceListing.setImageUrls(serviceDTO.getImageUrls());
         serviceListing.setEstimatedDuration(serviceDTO.getEstimatedDuration());
         serviceListing.setAvailabilityDays(serviceDTO.getAvailabilityDays());
@@ -150,7 +250,18 @@ public class ServiceListingServiceImpl implements ServiceListingService {
             serviceListing.setSubcategory(subcategory);
         }
         
-        return toDTO(serviceListingRepository.save(serviceListing));
+        ServiceListing saved = serviceListingRepository.save(serviceListing);
+        searchViewService.refreshListing(saved);
+        List<Long> categoryIds = Arrays.asList(previousCategoryId, saved.getCategory().getId());
+        List<Long> subcategoryIds = Arrays.asList(previousSubcategoryId,
+                saved.getSubcategory() != null ? saved.getSubcategory().getId() : null);
+        AfterCommit.run(() -> {
+            searchIndex.index(saved);
+            suggestionIndex.indexListing(saved);
+            searchCache.invalidateListing(categoryIds, subcategoryIds);
+        });
+        
+        return toDTO(saved);
     }
 
     @Override
@@ -165,24 +276,156 @@ public class ServiceListingServiceImpl implements ServiceListingService {
         }
         
         serviceListingRepository.delete(serviceListing);
+        searchViewService.removeListing(id);
+        List<Long> categoryIds = Arrays.asList(serviceListing.getCategory().getId());
+        List<Long> subcategoryIds = Arrays.asList(
+                serviceListing.getSubcategory() != null ? serviceListing.getSubcategory().getId() : null);
+        // Deferred: the delete can still fail at flush, e.g. on a listing that has bookings
+        AfterCommit.run(() -> {
+            searchIndex.remove(id);
+            suggestionIndex.removeListing(id);
+            searchCache.invalidateListing(categoryIds, subcategoryIds);
+        });
     }
 
     @Override
-    @Transactional
     public void incrementViewCount(Long id) {
-        ServiceListing serviceListing = serviceListingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Service listing not found"));
-        serviceListing.setViewCount(serviceListing.getViewCount() + 1);
-        serviceListingRepository.save(serviceListing);
+        listingCounterService.recordView(id);
+        popularityUpdater.recordView(id);
     }
 
     @Override
-    @Transactional
     public void incrementBookingCount(Long id) {
-        ServiceListing serviceListing = serviceListingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Service listing not found"));
-        serviceListing.setBookingCount(serviceListing.getBookingCount() + 1);
-        serviceListingRepository.save(serviceListing);
+        listingCounterService.recordBookings(id, 1);
+        popularityUpdater.recordBooking(id);
+    }
+
+    private Page<ServiceListingDTO> searchIndexed(ServiceSearchRequest searchRequest) {
+        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
+        List<Long> rankedIds = searchIndex.search(searchRequest);
+        
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<ServiceListingDTO> content = dtoLoader.load(rankedIds.subList(from, to));
+        
+        if (searchRequest.getLatitude() != null && searchRequest.getLongitude() != null) {
+            content.stream()
+                    .filter(dto -> dto.getLatitude() != null && dto.getLongitude() != null)
+                    .forEach(dto -> dto.setDistanceKm(GeoGridIndex.distanceKm(
+                            searchRequest.getLatitude(), searchRequest.getLongitude(),
+                            dto.getLatitude(), dto.getLongitude())));
+        }
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    private CursorPageDTO<ServiceListingDTO> scrollIndexed(ServiceSearchRequest searchRequest) {
+        // Ranked results live in memory, so the cursor only needs to carry the rank offset
+        int offset = 0;
+        if (searchRequest.getCursor() != null && !searchRequest.getCursor().isEmpty()) {
+            ListingCursor cursor = ListingCursor.decode(searchRequest.getCursor());
+            if (!"rank".equals(cursor.sortKey())) {
+                throw new IllegalArgumentException("Cursor does not match the requested search");
+            }
+            offset = Integer.parseInt(cursor.value());
+        }
+        
+        List<Long> rankedIds = searchIndex.search(searchRequest);
+        int from = Math.min(offset, rankedIds.size());
+        int to = Math.min(from + searchRequest.getSize(), rankedIds.size());
+        boolean hasNext = to < rankedIds.size();
+        return CursorPageDTO.<ServiceListingDTO>builder()
+                .content(dtoLoader.load(rankedIds.subList(from, to)))
+                .size(searchRequest.getSize())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new ListingCursor("rank", String.valueOf(to), rankedIds.get(to - 1)).encode() : null)
+                .approximateTotal(Boolean.TRUE.equals(searchRequest.getIncludeTotal()) ? (long) rankedIds.size() : null)
+                .build();
+    }
+
+    // The search view only holds active listings, so no active flag or joins are needed
+    private Specification<ServiceSearchEntry> searchSpecification(ServiceSearchRequest searchRequest) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (searchRequest.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("categoryId"), searchRequest.getCategoryId()));
+            }
+            if (searchRequest.getSubcategoryId() != null) {
+                predicates.add(cb.equal(root.get("subcategoryId"), searchRequest.getSubcategoryId()));
+            }
+            if (searchRequest.getLocation() != null && !searchRequest.getLocation().isEmpty()) {
+                predicates.add(cb.like(cb.lower(root.get("serviceLocation")),
+                        "%" + searchRequest.getLocation().toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (searchRequest.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), searchRequest.getMinPrice()));
+            }
+            if (searchRequest.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), searchRequest.getMaxPrice()));
+            }
+            if (searchRequest.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("providerRating"), searchRequest.getMinRating()));
+            }
+            if (Boolean.TRUE.equals(searchRequest.getVerifiedOnly())) {
+                predicates.add(cb.isTrue(root.get("providerVerified")));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private Specification<ServiceSearchEntry> afterCursor(ListingSortKey sortKey, ListingCursor cursor) {
+        boolean ascending = sortKey.direction() == Sort.Direction.ASC;
+        return (root, query, cb) -> switch (sortKey.name()) {
+            case "price" -> keysetPredicate(cb, root, root.<BigDecimal>get("price"),
+                    new BigDecimal(cursor.value()), cursor.id(), ascending);
+            case "rating" -> keysetPredicate(cb, root, root.<BigDecimal>get("providerRating"),
+                    cursor.value().isEmpty() ? null : new BigDecimal(cursor.value()), cursor.id(), ascending);
+            case "popular", "relevance" -> keysetPredicate(cb, root, root.<Double>get("popularityScore"),
+                    cursor.value().isEmpty() ? null : Double.valueOf(cursor.value()), cursor.id(), ascending);
+            default -> keysetPredicate(cb, root, root.<Instant>get("createdAt"),
+                    Instant.parse(cursor.value()), cursor.id(), ascending);
+        };
+    }
+
+    // (key, id) strictly after (value, lastId) in the sort direction. A null key sorts lowest, as in
+    // MySQL: last when descending, first when ascending; a null value means the last row's key was null.
+    private static <Y extends Comparable<? super Y>> Predicate keysetPredicate(
+            CriteriaBuilder cb, Root<ServiceSearchEntry> root, Expression<Y> key, Y value, long lastId, boolean ascending) {
+        Expression<Long> id = root.get("id");
+        Predicate beyondId = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if (value == null) {
+            Predicate nullBeyondId = cb.and(cb.isNull(key), beyondId);
+            return ascending ? cb.or(nullBeyondId, cb.isNotNull(key)) : nullBeyondId;
+        }
+        Predicate beyondKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate after = cb.or(beyondKey, cb.and(cb.equal(key, value), beyondId));
+        return ascending ? after : cb.or(after, cb.isNull(key));
+    }
+
+    private ListingSortKey listingSortKey(String sortBy, String sortOrder) {
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        
+        if (sortBy == null) {
+            return new ListingSortKey("recent", "createdAt", Sort.Direction.DESC);
+        }
+        
+        switch (sortBy.toLowerCase()) {
+            case "price":
+                return new ListingSortKey("price", "price", direction);
+            case "rating":
+                return new ListingSortKey("rating", "providerRating", Sort.Direction.DESC);
+            case "popular":
+                return new ListingSortKey("popular", "popularityScore", Sort.Direction.DESC);
+            case "relevance":
+                // Without a keyword there is no text score, so relevance falls back to popularity
+                return new ListingSortKey("relevance", "popularityScore", Sort.Direction.DESC);
+            case "recent":
+            default:
+                return new ListingSortKey("recent", "createdAt", Sort.Direction.DESC);
+        }
+    }
+
+    private Page<ServiceListingDTO> loadPage(Page<Long> ids) {
+        return new PageImpl<>(dtoLoader.load(ids.getContent()), ids.getPageable(), ids.getTotalElements());
     }
 
     private ServiceListingDTO toDTO(ServiceListing service) {
@@ -202,6 +445,8 @@ public class ServiceListingServiceImpl implements ServiceListingService {
                 .price(service.getPrice())
                 .pricingType(service.getPricingType())
                 .serviceLocation(service.getServiceLocation())
+                .latitude(service.getLatitude())
+                .longitude(service.getLongitude())
                 .imageUrls(service.getImageUrls())
                 .estimatedDuration(service.getEstimatedDuration())
                 .availabilityDays(service.getAvailabilityDays())
@@ -214,23 +459,21 @@ public class ServiceListingServiceImpl implements ServiceListingService {
         return dto;
     }
 
-    private Sort createSort(String sortBy, String sortOrder) {
-        Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    private record ListingSortKey(String name, String attribute, Sort.Direction direction) {
         
-        if (sortBy == null) {
-            return Sort.by(Sort.Direction.DESC, "createdAt");
-        }
-        
-        switch (sortBy.toLowerCase()) {
-            case "price":
-                return Sort.by(direction, "price");
-            case "rating":
-                return Sort.by(Sort.Direction.DESC, "providerProfile.rating");
-            case "popular":
-                return Sort.by(Sort.Direction.DESC, "bookingCount");
-            case "recent":
-            default:
-                return Sort.by(Sort.Direction.DESC, "createdAt");
+        String valueOf(ServiceSearchEntry entry) {
+            switch (name) {
+                case "price":
+                    return entry.getPrice().toPlainString();
+                // Null keys are written as an empty value, so the next page can match them exactly
+                case "rating":
+                    return entry.getProviderRating() != null ? entry.getProviderRating().toPlainString() : "";
+                case "popular":
+                case "relevance":
+                    return entry.getPopularityScore() != null ? String.valueOf(entry.getPopularityScore()) : "";
+                default:
+                    return entry.getCreatedAt().toString();
+            }
         }
     }
 }
@@ -0,0 +1,111 @@
+package com.fixitnow.service;
+
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.model.ServiceListing;
+import com.fixitnow.model.ServiceSearchEntry;
+import com.fixitnow.repository.ServiceSearchEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Keeps the service_search_view read model in step with listings, provider profiles, reviews and
+ * categories. Every write is a single-row upsert/delete or a set-based UPDATE, so callers can run
+ * it inside their own transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceSearchViewService {
+    
+    private final ServiceSearchEntryRepository searchEntryRepository;
+    private final ServiceListingSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int inserted = searchEntryRepository.backfillMissing();
+        if (inserted > 0) {
+            log.info("Search view backfilled with {} listings", inserted);
+        }
+    }
+    
+    @Transactional
+    public void refreshListing(ServiceListing listing) {
+        if (!listing.isActive()) {
+            searchEntryRepository.deleteById(listing.getId());
+            return;
+        }
+        
+        ProviderProfile provider = listing.getProviderProfile();
+        searchEntryRepository.save(ServiceSearchEntry.builder()
+            .id(listing.getId())
+            .providerProfileId(provider.getId())
+            .providerRating(provider.getRating() != null ? provider.getRating() : BigDecimal.ZERO)
+            .providerTotalReviews(provider.getTotalReviews() != null ? provider.getTotalReviews() : 0)
+            .providerVerified(provider.isVerified())
+            .categoryId(listing.getCategory().getId())
+            .categoryName(listing.getCategory().getName())
+            .subcategoryId(listing.getSubcategory() != null ? listing.getSubcategory().getId() : null)
+            .subcategoryName(listing.getSubcategory() != null ? listing.getSubcategory().getName() : null)
+            .title(listing.getTitle())
+            .price(listing.getPrice())
+            .pricingType(listing.getPricingType())
+            .serviceLocation(listing.getServiceLocation())
+            .latitude(listing.getLatitude())
+            .longitude(listing.getLongitude())
+            .viewCount(listing.getViewCount() != null ? listing.getViewCount() : 0)
+            .bookingCount(listing.getBookingCount() != null ? listing.getBookingCount() : 0)
+            .popularityScore(PopularityScore.popularity(PopularityScore.activityOf(listing), provider.getRating()))
+            .createdAt(listing.getCreatedAt())
+            .build());
+    }
+    
+    @Transactional
+    public void removeListing(Long listingId) {
+        searchEntryRepository.deleteById(listingId);
+    }
+    
+    /**
+     * Pushes a provider's rating, review count and verified flag to all of their listings,
+     * both in the read model and, once the transaction commits, in the in-memory search index.
+     */
+    @Transactional
+    public void refreshProvider(ProviderProfile provider) {
+        BigDecimal rating = provider.getRating() != null ? provider.getRating() : BigDecimal.ZERO;
+        searchEntryRepository.updateProvider(
+            provider.getId(),
+            rating,
+            provider.getTotalReviews() != null ? provider.getTotalReviews() : 0,
+            provider.isVerified()
+        );
+        AfterCommit.run(() -> {
+            searchIndex.updateProvider(provider);
+            searchCache.invalidateProvider(provider.getId());
+        });
+    }
+    
+    @Transactional
+    public void renameCategory(Long categoryId, String name) {
+        searchEntryRepository.renameCategory(categoryId, name);
+        AfterCommit.run(() -> {
+            searchIndex.renameCategory(categoryId, name);
+            searchCache.clear(); // names appear in every cached page that shows the category
+        });
+    }
+    
+    @Transactional
+    public void renameSubcategory(Long subcategoryId, String name) {
+        searchEntryRepository.renameSubcategory(subcategoryId, name);
+        AfterCommit.run(() -> {
+            searchIndex.renameSubcategory(subcategoryId, name);
+            searchCache.clear();
+        });
+    }
+}
@@ -22,6 +22,8 @@ public class ServiceSubcategoryServiceImpl implements ServiceSubcategoryService
     private final ServiceSubcategoryRepository subcategoryRepository;
     private final ServiceCategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final ServiceSearchViewService searchViewService;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     @Transactional(readOnly = true)
@@ -66,7 +68,9 @@ public class ServiceSubcategoryServiceImpl implements ServiceSubcategoryService
                 .active(true)
                 .build();
         
-        return toDTO(subcategoryRepository.save(subcategory));
+        ServiceSubcategory saved = subcategoryRepository.save(subcategory);
+        AfterCommit.run(() -> suggestionIndex.indexSubcategory(saved));
+        return toDTO(saved);
     }
 
     @Override
@@ -85,7 +89,10 @@ public class ServiceSubcategoryServiceImpl implements ServiceSubcategoryService
             subcategory.setCategory(category);
         }
         
-        return toDTO(subcategoryRepository.save(subcategory));
+        searchViewService.renameSubcategory(id, subcategoryDTO.getName());
+        ServiceSubcategory saved = subcategoryRepository.save(subcategory);
+        AfterCommit.run(() -> suggestionIndex.indexSubcategory(saved));
+        return toDTO(saved);
     }
 
     @Override
@@ -94,6 +101,7 @@ public class ServiceSubcategoryServiceImpl implements ServiceSubcategoryService
         ServiceSubcategory subcategory = subcategoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Subcategory not found with id: " + id));
         subcategoryRepository.delete(subcategory);
+        AfterCommit.run(() -> suggestionIndex.removeSubcategory(id));
     }
 
     private ServiceSubcategoryDTO toDTO(ServiceSubcategory subcategory) {
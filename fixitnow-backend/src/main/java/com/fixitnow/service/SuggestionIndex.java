@@ -0,0 +1,354 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.SuggestionDTO;
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.model.ServiceCategory;
+import com.fixitnow.model.ServiceListing;
+import com.fixitnow.model.ServiceSubcategory;
+import com.fixitnow.repository.ProviderProfileRepository;
+import com.fixitnow.repository.ServiceCategoryRepository;
+import com.fixitnow.repository.ServiceListingRepository;
+import com.fixitnow.repository.ServiceSubcategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead over listing titles, category and subcategory names and provider skills.
+ * Every word start of a text is a trie key, so "pipe re" completes "Emergency pipe repair".
+ * Suggestions are weighted by booking and view activity: a listing by its own counters, a
+ * category or subcategory by the sum over its active listings and a provider's skills by the
+ * sum over that provider's listings.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndex {
+
+    private static final int BOOKING_WEIGHT = 10;
+    private static final int MAX_KEY_LENGTH = 40;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ServiceListingRepository serviceListingRepository;
+    private final ServiceCategoryRepository categoryRepository;
+    private final ServiceSubcategoryRepository subcategoryRepository;
+    private final ProviderProfileRepository providerRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie trie = new SuggestionTrie();
+    // Source key ("listing:12", "category:3", "skill:7:tiling") -> current suggestion
+    private final Map<String, SuggestionTrie.Suggestion> suggestions = new HashMap<>();
+    // Activity key ("listing:12", "category:3", "provider:7") -> summed weight and the suggestions it drives
+    private final Map<String, Long> activity = new HashMap<>();
+    private final Map<String, Set<String>> sourcesByActivity = new HashMap<>();
+    private final Map<String, String> activityBySource = new HashMap<>();
+    private final Map<Long, ListingActivity> listings = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            suggestions.clear();
+            activity.clear();
+            sourcesByActivity.clear();
+            activityBySource.clear();
+            listings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Listings first, so category and skill weights are already summed when those are inserted
+        long lastId = 0L;
+        List<ServiceListing> batch;
+        do {
+            batch = serviceListingRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ServiceListing listing : batch) {
+                indexListing(listing);
+                lastId = listing.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        categoryRepository.findAll().forEach(this::indexCategory);
+        subcategoryRepository.findAll().forEach(this::indexSubcategory);
+        providerRepository.findAll().forEach(this::indexProvider);
+
+        log.info("Suggestion index built: {} suggestions in {} ms",
+                suggestions.size(), System.currentTimeMillis() - started);
+    }
+
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (prefix.length() > MAX_KEY_LENGTH) {
+            prefix = prefix.substring(0, MAX_KEY_LENGTH);
+        }
+
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, limit).stream()
+                    .map(s -> SuggestionDTO.builder().text(s.text()).type(s.type()).id(s.refId()).build())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexListing(ServiceListing listing) {
+        if (!listing.isActive()) {
+            removeListing(listing.getId());
+            return;
+        }
+        ListingActivity current = new ListingActivity(
+                listing.getCategory() != null ? listing.getCategory().getId() : null,
+                listing.getSubcategory() != null ? listing.getSubcategory().getId() : null,
+                listing.getProviderProfile() != null ? listing.getProviderProfile().getId() : null,
+                (long) BOOKING_WEIGHT * valueOrZero(listing.getBookingCount()) + valueOrZero(listing.getViewCount())
+        );
+
+        lock.writeLock().lock();
+        try {
+            ListingActivity previous = listings.put(listing.getId(), current);
+            if (previous != null) {
+                addListingActivity(previous, -previous.weight());
+            }
+            addListingActivity(current, current.weight());
+            activity.put("listing:" + listing.getId(), current.weight());
+            put("listing:" + listing.getId(), "listing:" + listing.getId(), listing.getTitle(), "service", listing.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Views and bookings flushed by ListingCounterService; reweights the listing without reloading it.
+     */
+    public void addActivity(Long listingId, long views, long bookings) {
+        long delta = (long) BOOKING_WEIGHT * bookings + views;
+        if (delta == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ListingActivity previous = listings.get(listingId);
+            if (previous == null) {
+                return;
+            }
+            listings.put(listingId, new ListingActivity(previous.categoryId(), previous.subcategoryId(),
+                    previous.providerProfileId(), previous.weight() + delta));
+            addListingActivity(previous, delta);
+            adjustActivity("listing:" + listingId, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeListing(Long listingId) {
+        lock.writeLock().lock();
+        try {
+            ListingActivity previous = listings.remove(listingId);
+            if (previous != null) {
+                addListingActivity(previous, -previous.weight());
+            }
+            delete("listing:" + listingId);
+            activity.remove("listing:" + listingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexCategory(ServiceCategory category) {
+        lock.writeLock().lock();
+        try {
+            if (category.isActive()) {
+                put("category:" + category.getId(), "category:" + category.getId(), category.getName(), "category", category.getId());
+            } else {
+                delete("category:" + category.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            delete("category:" + categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexSubcategory(ServiceSubcategory subcategory) {
+        lock.writeLock().lock();
+        try {
+            if (subcategory.isActive()) {
+                put("subcategory:" + subcategory.getId(), "subcategory:" + subcategory.getId(),
+                        subcategory.getName(), "subcategory", subcategory.getId());
+            } else {
+                delete("subcategory:" + subcategory.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSubcategory(Long subcategoryId) {
+        lock.writeLock().lock();
+        try {
+            delete("subcategory:" + subcategoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexProvider(ProviderProfile provider) {
+        Set<String> skills = new LinkedHashSet<>();
+        if (provider.getSkills() != null) {
+            for (String skill : provider.getSkills().split(",")) {
+                if (!skill.isBlank()) {
+                    skills.add(skill.trim());
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeSkills(provider.getId());
+            String activityKey = "provider:" + provider.getId();
+            for (String skill : skills) {
+                put("skill:" + provider.getId() + ":" + normalize(skill), activityKey, skill, "skill", provider.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProvider(Long providerProfileId) {
+        lock.writeLock().lock();
+        try {
+            removeSkills(providerProfileId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return suggestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void put(String sourceKey, String activityKey, String text, String type, Long refId) {
+        delete(sourceKey);
+        if (text == null || normalize(text).isEmpty()) {
+            return;
+        }
+        SuggestionTrie.Suggestion suggestion = new SuggestionTrie.Suggestion(
+                text.trim(), type, refId, 1 + activity.getOrDefault(activityKey, 0L));
+        suggestions.put(sourceKey, suggestion);
+        sourcesByActivity.computeIfAbsent(activityKey, k -> new HashSet<>()).add(sourceKey);
+        activityBySource.put(sourceKey, activityKey);
+        for (String key : keys(text)) {
+            trie.insert(key, suggestion);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void delete(String sourceKey) {
+        SuggestionTrie.Suggestion previous = suggestions.remove(sourceKey);
+        if (previous == null) {
+            return;
+        }
+        for (String key : keys(previous.text())) {
+            trie.remove(key, previous);
+        }
+        String activityKey = activityBySource.remove(sourceKey);
+        Set<String> sources = sourcesByActivity.get(activityKey);
+        if (sources != null && sources.remove(sourceKey) && sources.isEmpty()) {
+            sourcesByActivity.remove(activityKey);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void removeSkills(Long providerProfileId) {
+        Set<String> sources = sourcesByActivity.get("provider:" + providerProfileId);
+        if (sources != null) {
+            new ArrayList<>(sources).forEach(this::delete);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void addListingActivity(ListingActivity listing, long delta) {
+        if (listing.categoryId() != null) {
+            adjustActivity("category:" + listing.categoryId(), delta);
+        }
+        if (listing.subcategoryId() != null) {
+            adjustActivity("subcategory:" + listing.subcategoryId(), delta);
+        }
+        if (listing.providerProfileId() != null) {
+            adjustActivity("provider:" + listing.providerProfileId(), delta);
+        }
+    }
+
+    // Caller must hold the write lock. Re-inserts every suggestion driven by this key at its new weight.
+    private void adjustActivity(String activityKey, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        long updated = activity.merge(activityKey, delta, Long::sum);
+        if (updated <= 0) {
+            activity.remove(activityKey);
+        }
+        Set<String> sources = sourcesByActivity.get(activityKey);
+        if (sources == null) {
+            return;
+        }
+        for (String sourceKey : new ArrayList<>(sources)) {
+            SuggestionTrie.Suggestion previous = suggestions.get(sourceKey);
+            put(sourceKey, activityKey, previous.text(), previous.type(), previous.refId());
+        }
+    }
+
+    // One key per word start, capped in length
+    private static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length()) {
+            String key = normalized.substring(start);
+            keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", SearchTextAnalyzer.tokenize(text));
+    }
+
+    private static long valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private record ListingActivity(Long categoryId, Long subcategoryId, Long providerProfileId, long weight) {
+    }
+}
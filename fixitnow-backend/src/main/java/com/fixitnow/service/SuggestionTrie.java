@@ -0,0 +1,179 @@
+package com.fixitnow.service;
+
+import java.util.*;
+
+/**
+ * Compressed (radix) prefix trie of weighted suggestions. Every node caches the highest weight in
+ * its subtree, so top-k completion is a best-first walk that stops after k distinct suggestions
+ * instead of visiting every completion of the prefix. Not thread-safe; SuggestionIndex guards it.
+ */
+class SuggestionTrie {
+
+    private final Node root = new Node("");
+
+    void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                path.add(child);
+                node = child;
+                break;
+            }
+            int common = commonPrefixLength(child.edge, key, i);
+            if (common < child.edge.length()) {
+                // Split the edge so the new key can branch off (or end) in the middle of it
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.children.put(child.edge.charAt(0), child);
+                middle.maxWeight = child.maxWeight;
+                node.children.put(middle.edge.charAt(0), middle);
+                child = middle;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        node.suggestions.add(suggestion);
+        for (Node n : path) {
+            n.maxWeight = Math.max(n.maxWeight, suggestion.weight());
+        }
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.edge, i)) {
+                return;
+            }
+            path.add(child);
+            node = child;
+            i += child.edge.length();
+        }
+        if (!node.suggestions.remove(suggestion)) {
+            return;
+        }
+
+        // Walk back up: drop empty nodes, re-merge single-child chains and refresh cached weights
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.suggestions.isEmpty() && current.children.isEmpty()) {
+                parent.children.remove(current.edge.charAt(0));
+                continue;
+            }
+            if (current.suggestions.isEmpty() && current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                only.edge = current.edge + only.edge;
+                parent.children.put(only.edge.charAt(0), only);
+                continue;
+            }
+            current.maxWeight = subtreeMax(current);
+        }
+        root.maxWeight = subtreeMax(root);
+    }
+
+    /**
+     * Returns up to limit suggestions whose key starts with prefix, heaviest first, skipping
+     * repeats of the same display text.
+     */
+    List<Suggestion> top(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int remaining = prefix.length() - i;
+            if (child.edge.length() >= remaining) {
+                if (!child.edge.startsWith(prefix.substring(i))) {
+                    return List.of();
+                }
+                node = child;
+                break;
+            }
+            if (!prefix.startsWith(child.edge, i)) {
+                return List.of();
+            }
+            node = child;
+            i += child.edge.length();
+        }
+
+        List<Suggestion> results = new ArrayList<>(limit);
+        Set<String> seenTexts = new HashSet<>();
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Comparator.comparingLong(Candidate::weight).reversed());
+        frontier.add(new Candidate(node.maxWeight, node, null));
+        while (!frontier.isEmpty() && results.size() < limit) {
+            Candidate next = frontier.poll();
+            if (next.suggestion() != null) {
+                if (seenTexts.add(next.suggestion().text().toLowerCase(Locale.ROOT))) {
+                    results.add(next.suggestion());
+                }
+                continue;
+            }
+            for (Suggestion suggestion : next.node().suggestions) {
+                frontier.add(new Candidate(suggestion.weight(), null, suggestion));
+            }
+            for (Node child : next.node().children.values()) {
+                frontier.add(new Candidate(child.maxWeight, child, null));
+            }
+        }
+        return results;
+    }
+
+    void clear() {
+        root.children.clear();
+        root.suggestions.clear();
+        root.maxWeight = 0;
+    }
+
+    private static long subtreeMax(Node node) {
+        long max = 0;
+        for (Suggestion suggestion : node.suggestions) {
+            max = Math.max(max, suggestion.weight());
+        }
+        for (Node child : node.children.values()) {
+            max = Math.max(max, child.maxWeight);
+        }
+        return max;
+    }
+
+    private static int commonPrefixLength(String edge, String key, int offset) {
+        int n = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < n && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        String edge;
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Suggestion> suggestions = new ArrayList<>(1);
+        long maxWeight;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private record Candidate(long weight, Node node, Suggestion suggestion) {
+    }
+
+    /**
+     * A completion: the text shown to the user, what it refers to and its ranking weight.
+     */
+    record Suggestion(String text, String type, Long refId, long weight) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.fixitnow.service;
+
+import java.util.*;
+
+/**
+ * Trigram index over a reference-counted term vocabulary, used to find terms within a small edit
+ * distance of a misspelled query term. Candidates must pass a length filter and share enough
+ * trigrams (one edit destroys at most three), so the exact Levenshtein check only runs on a
+ * handful of terms. Not thread-safe; ServiceListingSearchIndex guards it.
+ */
+class TrigramIndex {
+
+    private final Map<String, Integer> termCounts = new HashMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    void add(String term) {
+        if (termCounts.merge(term, 1, Integer::sum) == 1) {
+            for (String trigram : trigrams(term)) {
+                termsByTrigram.computeIfAbsent(trigram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        Integer count = termCounts.get(term);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            termCounts.put(term, count - 1);
+            return;
+        }
+        termCounts.remove(term);
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        termCounts.clear();
+        termsByTrigram.clear();
+    }
+
+    /**
+     * Returns vocabulary terms within maxEdits of the query (the query itself included if present).
+     */
+    List<Match> similar(String query, int maxEdits) {
+        if (maxEdits <= 0) {
+            return termCounts.containsKey(query) ? List.of(new Match(query, 0)) : List.of();
+        }
+        Set<String> queryTrigrams = trigrams(query);
+        int required = queryTrigrams.size() - 3 * maxEdits;
+
+        Map<String, Integer> shared = new HashMap<>();
+        if (required <= 0) {
+            // Query too short for the trigram filter to prune anything; fall back to the length filter
+            for (String term : termCounts.keySet()) {
+                if (Math.abs(term.length() - query.length()) <= maxEdits) {
+                    shared.put(term, 0);
+                }
+            }
+        } else {
+            for (String trigram : queryTrigrams) {
+                for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                    if (Math.abs(term.length() - query.length()) <= maxEdits) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < required) {
+                continue;
+            }
+            int distance = boundedDistance(query, candidate.getKey(), maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(candidate.getKey(), distance));
+            }
+        }
+        return matches;
+    }
+
+    int size() {
+        return termCounts.size();
+    }
+
+    // Levenshtein distance restricted to a diagonal band; returns max + 1 as soon as it is exceeded
+    static int boundedDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : max + 1;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            current[0] = i <= max ? i : max + 1;
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, max + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = max + 1;
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "$$" + term + "$$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    record Match(String term, int distance) {
+    }
+}
@@ -64,6 +64,8 @@ public class UserServiceImpl implements UserService {
                     existingUser.setName(userDTO.getName());
                     existingUser.setRole(userDTO.getRole());
                     existingUser.setLocation(userDTO.getLocation());
+                    existingUser.setLatitude(userDTO.getLatitude());
+                    existingUser.setLongitude(userDTO.getLongitude());
                     return toDTO(userRepository.save(existingUser));
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
@@ -0,0 +1,114 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingArchiveJobTest {
+
+    @Autowired
+    private BookingArchiveJob archiveJob;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long plainId;
+    private Long chattedId;
+
+    @BeforeAll
+    void createFinishedBookings() {
+        User customer = userRepository.save(User.builder()
+                .name("Archive customer")
+                .email("archive-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build());
+        User providerUser = userRepository.save(User.builder()
+                .name("Archive provider")
+                .email("archive-provider@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(providerUser).build());
+        ServiceListing listing = serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(categoryRepository.save(ServiceCategory.builder().name("Archive category").build()))
+                .title("Archive listing")
+                .description("Archive listing")
+                .price(BigDecimal.valueOf(60))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+
+        LocalDateTime day = LocalDate.now().plusDays(50).atStartOfDay();
+        plainId = bookingService.createBooking(customer.getId(), request(listing, day, "09:00-10:00")).getId();
+        chattedId = bookingService.createBooking(customer.getId(), request(listing, day, "11:00-12:00")).getId();
+        chatRoomRepository.save(ChatRoom.builder()
+                .booking(bookingRepository.getReferenceById(chattedId))
+                .customer(customer)
+                .provider(providerUser)
+                .roomId("booking_" + chattedId + "_customer_" + customer.getId() + "_provider_" + providerUser.getId())
+                .build());
+
+        // Both finished long ago
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(400));
+        jdbcTemplate.update("UPDATE bookings SET status = 'COMPLETED', booking_date = ?, updated_at = ? WHERE id IN (?, ?)",
+                longAgo, longAgo, plainId, chattedId);
+    }
+
+    @Test
+    void bookingsWithAChatRoomStayLiveAndAreCounted() {
+        archiveJob.run();
+
+        assertFalse(bookingRepository.existsById(plainId));
+        assertTrue(archivedBookingRepository.existsById(plainId));
+        assertTrue(bookingRepository.existsById(chattedId));
+        assertFalse(archivedBookingRepository.existsById(chattedId));
+
+        Map<String, Object> stats = archiveJob.stats();
+        assertEquals(1L, stats.get("lastRunArchived"));
+        assertEquals(1L, stats.get("heldBackWithChatRoom"));
+    }
+
+    private static BookingRequest request(ServiceListing listing, LocalDateTime date, String timeSlot) {
+        BookingRequest request = new BookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(date);
+        request.setTimeSlot(timeSlot);
+        request.setTotalPrice(BigDecimal.valueOf(60));
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.dto.BookingResponse;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingConcurrencyTest {
+
+    // Fewer than the pool's connections, like the threads that insert bookings in production
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_PROVIDER = 64;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingSlotClaimRepository slotClaimRepository;
+    @Autowired
+    private ProviderBookingStatsRepository statsRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+
+    private Long customerId;
+    private ServiceListing contendedListing;
+    private ServiceListing freeListing;
+
+    @BeforeAll
+    void createProviders() {
+        customerId = userRepository.save(User.builder()
+                .name("Concurrent customer")
+                .email("concurrent-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build()).getId();
+        ServiceCategory category = categoryRepository.save(ServiceCategory.builder().name("Concurrency category").build());
+        contendedListing = listingFor("contended", category);
+        freeListing = listingFor("free", category);
+    }
+
+    @Test
+    void sameSlotIsBookedOnceWhileOtherProvidersKeepBooking() throws Exception {
+        LocalDateTime contendedDate = LocalDate.now().plusDays(30).atTime(10, 0);
+        LocalDate firstFreeDate = LocalDate.now().plusDays(30);
+
+        // Every request for the first provider wants the same slot; every request for the second a slot of its own
+        List<Callable<BookingResponse>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS_PER_PROVIDER; i++) {
+            tasks.add(() -> bookingService.createBooking(customerId,
+                    request(contendedListing, contendedDate, "10:00-12:00")));
+            LocalDateTime freeDate = firstFreeDate.plusDays(i).atTime(9, 0);
+            tasks.add(() -> bookingService.createBooking(customerId, request(freeListing, freeDate, "09:00-11:00")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingResponse>> results = new ArrayList<>();
+        for (Callable<BookingResponse> task : tasks) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+
+        Map<Long, List<Long>> bookedByProvider = new HashMap<>();
+        List<String> unexpectedFailures = new ArrayList<>();
+        int conflicts = 0;
+        for (Future<BookingResponse> result : results) {
+            try {
+                BookingResponse booking = result.get(60, TimeUnit.SECONDS);
+                bookedByProvider.computeIfAbsent(booking.getServiceListingId(), k -> new ArrayList<>()).add(booking.getId());
+            } catch (ExecutionException e) {
+                if (e.getCause().getMessage() != null && e.getCause().getMessage().contains("not available")) {
+                    conflicts++;
+                } else {
+                    unexpectedFailures.add(e.getCause().toString());
+                }
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        executor.shutdown();
+        assertEquals(List.of(), unexpectedFailures);
+        // A starved connection pool shows up as a stall until its 30-second connection timeout
+        assertTrue(elapsedMs < 20_000, tasks.size() + " booking requests took " + elapsedMs + " ms");
+
+        // Exactly one booking, and one set of slot claims, for the contended slot
+        List<Long> contended = bookedByProvider.getOrDefault(contendedListing.getId(), List.of());
+        assertEquals(1, contended.size());
+        assertEquals(REQUESTS_PER_PROVIDER - 1, conflicts);
+        Long providerId = contendedListing.getProviderProfile().getUser().getId();
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().equals(providerId))
+                .count());
+        List<BookingSlotClaim> claims = slotClaimRepository.findAll().stream()
+                .filter(c -> c.getProviderId().equals(providerId))
+                .toList();
+        assertEquals(8, claims.size()); // 10:00-12:00 in 15-minute slots
+        assertTrue(claims.stream().allMatch(c -> c.getBookingId().equals(contended.get(0))));
+
+        // The unrelated provider got every one of its bookings
+        assertEquals(REQUESTS_PER_PROVIDER, bookedByProvider.getOrDefault(freeListing.getId(), List.of()).size());
+
+        // Dashboard counters, created by the first bookings of each provider, count every booking once
+        assertEquals(1, statsRepository.findById(providerId).orElseThrow().getPendingCount());
+        Long freeProviderId = freeListing.getProviderProfile().getUser().getId();
+        assertEquals(REQUESTS_PER_PROVIDER, statsRepository.findById(freeProviderId).orElseThrow().getPendingCount());
+    }
+
+    private ServiceListing listingFor(String name, ServiceCategory category) {
+        User user = userRepository.save(User.builder()
+                .name("Provider " + name)
+                .email("concurrent-provider-" + name + "@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(user).build());
+        return serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(category)
+                .title("Listing " + name)
+                .description("Concurrency listing")
+                .price(BigDecimal.valueOf(100))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+    }
+
+    private static BookingRequest request(ServiceListing listing, LocalDateTime date, String timeSlot) {
+        BookingRequest request = new BookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(date);
+        request.setTimeSlot(timeSlot);
+        request.setTotalPrice(BigDecimal.valueOf(100));
+        return request;
+    }
+}
@@ -0,0 +1,124 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.dto.BookingResponse;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingHistoryTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long customerId;
+    private Long providerId;
+    private Long liveId;
+    private Long archivedId;
+
+    @BeforeAll
+    void createBookings() {
+        customerId = userRepository.save(User.builder()
+                .name("History customer")
+                .email("history-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build()).getId();
+        User providerUser = userRepository.save(User.builder()
+                .name("History provider")
+                .email("history-provider@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        providerId = providerUser.getId();
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(providerUser).build());
+        ServiceListing listing = serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(categoryRepository.save(ServiceCategory.builder().name("History category").build()))
+                .title("History listing")
+                .description("History listing")
+                .price(BigDecimal.valueOf(80))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+
+        LocalDateTime day = LocalDate.now().plusDays(40).atStartOfDay();
+        liveId = bookingService.createBooking(customerId, request(listing, day, "09:00-10:00")).getId();
+        archivedId = bookingService.createBooking(customerId, request(listing, day, "11:00-12:00")).getId();
+        // What BookingArchiveJob does with each chunk
+        transactionTemplate.executeWithoutResult(status -> {
+            archivedBookingRepository.copyFromBookings(List.of(archivedId), LocalDateTime.now());
+            bookingRepository.deleteByIdIn(List.of(archivedId));
+        });
+    }
+
+    @Test
+    void bookingListsOnlyHoldLiveBookings() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+        assertEquals(List.of(liveId), ids(bookingService.getCustomerBookings(customerId, null, page).getContent()));
+        assertEquals(List.of(liveId), ids(bookingService.getProviderBookings(providerId, BookingStatus.PENDING, page).getContent()));
+    }
+
+    @Test
+    void historyListsOnlyHoldArchivedBookings() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+        assertEquals(List.of(archivedId), ids(bookingService.getCustomerBookingHistory(customerId, null, page).getContent()));
+        assertEquals(List.of(archivedId), ids(bookingService.getProviderBookingHistory(providerId, BookingStatus.PENDING, page).getContent()));
+        assertEquals(0, bookingService.getProviderBookingHistory(providerId, BookingStatus.COMPLETED, page).getTotalElements());
+    }
+
+    @Test
+    void bookingByIdFindsLiveAndArchivedBookings() {
+        assertEquals(liveId, bookingService.getBookingById(liveId, customerId).getId());
+        BookingResponse archived = bookingService.getBookingById(archivedId, providerId);
+        assertEquals("History listing", archived.getServiceTitle());
+        assertEquals("History customer", archived.getCustomerName());
+    }
+
+    private static List<Long> ids(List<BookingResponse> bookings) {
+        return bookings.stream().map(BookingResponse::getId).toList();
+    }
+
+    private static BookingRequest request(ServiceListing listing, LocalDateTime date, String timeSlot) {
+        BookingRequest request = new BookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(date);
+        request.setTimeSlot(timeSlot);
+        request.setTotalPrice(BigDecimal.valueOf(80));
+        return request;
+    }
+}
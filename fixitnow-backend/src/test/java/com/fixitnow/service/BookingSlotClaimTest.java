@@ -0,0 +1,155 @@
+package com.fixitnow.service;
+
+import com.fixitnow.config.BookingSlotClaimInitializer;
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.dto.TimeWindowDTO;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingSlotClaimTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingScheduleIndex scheduleIndex;
+    @Autowired
+    private BookingSlotClaimInitializer claimInitializer;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingSlotClaimRepository slotClaimRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+
+    private User customer;
+    private ServiceCategory category;
+
+    @BeforeAll
+    void createCustomer() {
+        customer = userRepository.save(User.builder()
+                .name("Slot customer")
+                .email("slot-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build());
+        category = categoryRepository.save(ServiceCategory.builder().name("Slot category").build());
+    }
+
+    @Test
+    void touchingBookingsDoNotConflict() {
+        ServiceListing listing = listingFor("touching");
+        LocalDateTime date = LocalDate.now().plusDays(10).atStartOfDay();
+
+        bookingService.createBooking(customer.getId(), request(listing, date, "09:00-09:15"));
+        bookingService.createBooking(customer.getId(), request(listing, date, "09:15-09:45"));
+
+        assertEquals(3, claimsOf(listing).size());
+        RuntimeException overlap = assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(customer.getId(), request(listing, date, "09:30-10:00")));
+        assertTrue(overlap.getMessage().contains("not available"));
+    }
+
+    @Test
+    void unalignedTimesAreRejected() {
+        ServiceListing listing = listingFor("unaligned");
+        LocalDateTime date = LocalDate.now().plusDays(10).atStartOfDay();
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(customer.getId(), request(listing, date, "09:00-09:20")));
+
+        assertTrue(error.getMessage().contains("quarter hour"));
+        assertTrue(claimsOf(listing).isEmpty());
+    }
+
+    @Test
+    void backfillClaimsOldBookingsAndWindowsAroundThemCanBeBooked() {
+        ServiceListing listing = listingFor("backfill");
+        LocalDate day = LocalDate.now().plusDays(12);
+        // Written before the guard existed: no claims and not on the quarter hour
+        Booking old = bookingRepository.save(Booking.builder()
+                .serviceListing(listing)
+                .customer(customer)
+                .provider(listing.getProviderProfile().getUser())
+                .bookingDate(day.atStartOfDay())
+                .timeSlot("09:00-09:20")
+                .totalPrice(BigDecimal.valueOf(100))
+                .status(BookingStatus.CONFIRMED)
+                .build());
+        scheduleIndex.rebuild();
+
+        claimInitializer.backfillClaims();
+        claimInitializer.backfillClaims();
+
+        List<BookingSlotClaim> claims = claimsOf(listing);
+        assertEquals(List.of(day.atTime(9, 0), day.atTime(9, 15)),
+                claims.stream().map(BookingSlotClaim::getSlotStart).sorted().toList());
+        assertTrue(claims.stream().allMatch(claim -> claim.getBookingId().equals(old.getId())));
+
+        List<TimeWindowDTO> windows = bookingService.getProviderAvailability(listing.getProviderProfile().getId(),
+                day.atTime(8, 40), day.atTime(10, 5)).getFreeWindows();
+        assertEquals(List.of(day.atTime(8, 45), day.atTime(9, 0), day.atTime(9, 30), day.atTime(10, 0)),
+                windows.stream().flatMap(window -> Stream.of(window.getStart(), window.getEnd())).toList());
+
+        // Both advertised windows can be booked right up to the old booking
+        bookingService.createBooking(customer.getId(), request(listing, day.atStartOfDay(), "08:45-09:00"));
+        bookingService.createBooking(customer.getId(), request(listing, day.atStartOfDay(), "09:30-10:00"));
+    }
+
+    private List<BookingSlotClaim> claimsOf(ServiceListing listing) {
+        Long providerId = listing.getProviderProfile().getUser().getId();
+        return slotClaimRepository.findAll().stream()
+                .filter(claim -> claim.getProviderId().equals(providerId))
+                .toList();
+    }
+
+    private ServiceListing listingFor(String name) {
+        User user = userRepository.save(User.builder()
+                .name("Provider " + name)
+                .email("slot-provider-" + name + "@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(user).build());
+        return serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(category)
+                .title("Listing " + name)
+                .description("Slot listing")
+                .price(BigDecimal.valueOf(100))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+    }
+
+    private static BookingRequest request(ServiceListing listing, LocalDateTime date, String timeSlot) {
+        BookingRequest request = new BookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(date);
+        request.setTimeSlot(timeSlot);
+        request.setTotalPrice(BigDecimal.valueOf(100));
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.dto.ChatMessageAck;
+import com.fixitnow.dto.ChatMessageDTO;
+import com.fixitnow.dto.SendMessageRequest;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// A context of its own, so also a database of its own: recreating the schema in the shared one would
+// pull it from under the cached context the other tests use
+@SpringBootTest(properties = {
+        "chat.async-persistence.enabled=true",
+        "chat.writer.shards=1",
+        "spring.datasource.url=jdbc:h2:mem:chat-writer;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=DAY,VALUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatMessageWriterTest {
+
+    @Autowired
+    private ChatMessageWriter writer;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    private User customer;
+    private ChatRoomCache.Room room;
+
+    @BeforeAll
+    void createRoom() {
+        customer = userRepository.save(User.builder()
+                .name("Writer customer")
+                .email("writer-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build());
+        User providerUser = userRepository.save(User.builder()
+                .name("Writer provider")
+                .email("writer-provider@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(providerUser).build());
+        ServiceListing listing = serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(categoryRepository.save(ServiceCategory.builder().name("Writer category").build()))
+                .title("Writer listing")
+                .description("Writer listing")
+                .price(BigDecimal.valueOf(40))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+
+        BookingRequest request = new BookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(LocalDate.now().plusDays(30).atStartOfDay());
+        request.setTimeSlot("09:00-10:00");
+        request.setTotalPrice(BigDecimal.valueOf(40));
+        Long bookingId = bookingService.createBooking(customer.getId(), request).getId();
+        Long chatRoomId = chatService.createOrGetChatRoom(bookingId, customer.getId()).getId();
+        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId).orElseThrow();
+        room = new ChatRoomCache.Room(chatRoom.getId(), chatRoom.getRoomId(), true,
+                customer.getId(), customer.getName(), providerUser.getId(), providerUser.getName());
+    }
+
+    @Test
+    void queuedMessagesAreSavedInOneBatchInSendOrder() {
+        long batchesBefore = (long) writer.stats().get("batches");
+
+        // While the room row is locked the writer is stuck on the first message, so the rest queue up
+        transactionTemplate.executeWithoutResult(status -> {
+            chatRoomRepository.findByIdForUpdate(room.id()).orElseThrow();
+            writer.publish(room, customer.getId(), message("m0"), "writer-acks");
+            awaitEmptyQueue();
+            for (int i = 1; i < 20; i++) {
+                writer.publish(room, customer.getId(), message("m" + i), "writer-acks");
+            }
+        });
+
+        List<ChatMessageAck> acks = acksFor("writer-acks", 20);
+        assertTrue(acks.stream().allMatch(ChatMessageAck::isPersisted));
+        assertEquals(LongStream.rangeClosed(1, 20).boxed().toList(), acks.stream().map(ChatMessageAck::getSeq).toList());
+        assertEquals(2, (long) writer.stats().get("batches") - batchesBefore);
+
+        assertEquals(IntStream.range(0, 20).mapToObj(i -> "m" + i).toList(), jdbcTemplate.queryForList(
+                "SELECT message FROM chat_messages WHERE chat_room_id = ? ORDER BY seq", String.class, room.id()));
+        ChatRoom chatRoom = chatRoomRepository.findById(room.id()).orElseThrow();
+        assertEquals(20L, chatRoom.getLastSeq());
+        assertEquals(20, chatRoom.getProviderUnread());
+        assertEquals("m19", chatRoom.getLastMessagePreview());
+
+        // Synchronous sends continue from the same counter
+        ChatMessageDTO next = chatService.sendMessage(room.roomId(), customer.getId(), message("m20"));
+        assertEquals(21L, next.getSeq());
+    }
+
+    @Test
+    void messagesThatCannotBeSavedGetAFailedAck() {
+        long failedBefore = (long) writer.stats().get("failed");
+        ChatRoomCache.Room missing = new ChatRoomCache.Room(-1L, "missing-room", true,
+                customer.getId(), customer.getName(), -2L, "Nobody");
+
+        ChatMessageDTO broadcast = writer.publish(missing, customer.getId(), message("lost"), "missing-acks");
+
+        ChatMessageAck ack = acksFor("missing-acks", 1).get(0);
+        assertFalse(ack.isPersisted());
+        assertNull(ack.getSeq());
+        assertEquals(broadcast.getId(), ack.getMessageId());
+        assertEquals("client-lost", ack.getClientMessageId());
+        assertEquals(1, (long) writer.stats().get("failed") - failedBefore);
+    }
+
+    private List<ChatMessageAck> acksFor(String user, int count) {
+        ArgumentCaptor<ChatMessageAck> acks = ArgumentCaptor.forClass(ChatMessageAck.class);
+        verify(messagingTemplate, timeout(10_000).times(count))
+                .convertAndSendToUser(eq(user), eq("/queue/chat.acks"), acks.capture());
+        return acks.getAllValues();
+    }
+
+    private void awaitEmptyQueue() {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((int) writer.stats().get("queued") > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "writer did not take the first message");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static SendMessageRequest message(String text) {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setRoomId("ignored");
+        request.setMessage(text);
+        request.setClientMessageId("client-" + text);
+        return request;
+    }
+}
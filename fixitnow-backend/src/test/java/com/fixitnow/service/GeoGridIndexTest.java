@@ -0,0 +1,112 @@
+package com.fixitnow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+
+    @Test
+    void nearestMatchesBruteForce() {
+        assertNearestMatchesBruteForce(12.97, 77.59);
+    }
+
+    @Test
+    void nearestMatchesBruteForceAtHighLatitude() {
+        // Rings reach latitudes where cells are much narrower than at the origin
+        assertNearestMatchesBruteForce(69.65, 18.96);
+    }
+
+    @Test
+    void nearestWrapsAroundTheAntimeridian() {
+        GeoGridIndex index = new GeoGridIndex();
+        index.put(1, -17.80, 179.98);
+        index.put(2, -17.80, -179.97);
+        index.put(3, -17.80, 178.50);
+
+        List<GeoGridIndex.Neighbor> nearest = index.nearest(-17.80, -179.99, 2, 200);
+
+        assertEquals(List.of(2L, 1L), nearest.stream().map(GeoGridIndex.Neighbor::key).toList());
+    }
+
+    @Test
+    void forEachWithinMatchesBruteForce() {
+        GeoGridIndex index = new GeoGridIndex();
+        List<double[]> points = randomPoints(index, 69.65, 18.96, 2000, 3.0, new Random(7));
+
+        Set<Long> found = new TreeSet<>();
+        index.forEachWithin(69.65, 18.96, 60, found::add);
+
+        Set<Long> expected = new TreeSet<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (GeoGridIndex.distanceKm(69.65, 18.96, points.get(i)[0], points.get(i)[1]) <= 60) {
+                expected.add((long) i);
+            }
+        }
+        assertTrue(expected.size() > 10);
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void forEachWithinWrapsAroundTheAntimeridian() {
+        GeoGridIndex index = new GeoGridIndex();
+        index.put(1, 0, 179.9);
+        index.put(2, 0, -179.9);
+        index.put(3, 0, 179.0);
+
+        Set<Long> found = new TreeSet<>();
+        index.forEachWithin(0, -179.95, 20, found::add);
+
+        assertEquals(Set.of(1L, 2L), found);
+    }
+
+    @Test
+    void nearestRespectsTheMaximumRadius() {
+        GeoGridIndex index = new GeoGridIndex();
+        index.put(1, 12.97, 77.59);
+        index.put(2, 13.97, 77.59); // ~111 km north
+
+        assertEquals(1, index.nearest(12.97, 77.59, 5, 50).size());
+        assertEquals(2, index.nearest(12.97, 77.59, 5, 150).size());
+    }
+
+    private static void assertNearestMatchesBruteForce(double latitude, double longitude) {
+        GeoGridIndex index = new GeoGridIndex();
+        List<double[]> points = randomPoints(index, latitude, longitude, 3000, 2.0, new Random(42));
+
+        List<GeoGridIndex.Neighbor> nearest = index.nearest(latitude, longitude, 10, 200);
+
+        List<GeoGridIndex.Neighbor> expected = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            double distance = GeoGridIndex.distanceKm(latitude, longitude, points.get(i)[0], points.get(i)[1]);
+            if (distance <= 200) {
+                expected.add(new GeoGridIndex.Neighbor(i, distance));
+            }
+        }
+        expected.sort(Comparator.comparingDouble(GeoGridIndex.Neighbor::distanceKm));
+        assertEquals(expected.subList(0, 10), nearest);
+    }
+
+    // Points scattered up to spreadDegrees around the origin, keyed by their position in the list
+    private static List<double[]> randomPoints(GeoGridIndex index, double latitude, double longitude,
+                                               int count, double spreadDegrees, Random random) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double[] point = {
+                    latitude + (random.nextDouble() * 2 - 1) * spreadDegrees,
+                    longitude + (random.nextDouble() * 2 - 1) * spreadDegrees * 3
+            };
+            points.add(point);
+            index.put(i, point[0], point[1]);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fixitnow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICalendarWriterTest {
+
+    @Test
+    void escapesTextValues() {
+        assertEquals("a\\\\b\\;c\\,d\\ne", ICalendarWriter.escape("a\\b;c,d\r\ne"));
+        assertEquals("", ICalendarWriter.escape(null));
+        // Colons need no escaping in TEXT values
+        assertEquals("10:00", ICalendarWriter.escape("10:00"));
+    }
+
+    @Test
+    void writesAnEventWithCrlfLines() throws IOException {
+        String calendar = write(new ICalendarWriter.Event("booking-7@fixitnow", Instant.parse("2024-11-20T09:30:00Z"),
+                LocalDateTime.of(2024, 11, 21, 10, 0), LocalDateTime.of(2024, 11, 21, 13, 0),
+                "Deep cleaning, kitchen", " ", "Notes; bring ladder", "TENTATIVE"));
+
+        assertTrue(calendar.endsWith("END:VCALENDAR\r\n"));
+        assertFalse(calendar.replace("\r\n", "").contains("\n"));
+        List<String> lines = Arrays.asList(calendar.split("\r\n"));
+        assertTrue(lines.contains("DTSTAMP:20241120T093000Z"));
+        assertTrue(lines.contains("DTSTART:20241121T100000"));
+        assertTrue(lines.contains("DTEND:20241121T130000"));
+        assertTrue(lines.contains("SUMMARY:Deep cleaning\\, kitchen"));
+        assertTrue(lines.contains("DESCRIPTION:Notes\\; bring ladder"));
+        assertTrue(lines.contains("STATUS:TENTATIVE"));
+        // Blank locations are left out
+        assertTrue(lines.stream().noneMatch(line -> line.startsWith("LOCATION")));
+    }
+
+    @Test
+    void foldsAt75OctetsWithoutSplittingCharacters() throws IOException {
+        // Two-, three- and four-byte UTF-8 characters, long enough to need several continuation lines
+        String description = "Réparation du chauffe-eau — 修理热水器 🔧 ".repeat(12);
+        String calendar = write(new ICalendarWriter.Event("booking-8@fixitnow", Instant.EPOCH,
+                LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 1, 10, 0),
+                "Repair", "Rue de l'Église 3", description, "CONFIRMED"));
+
+        String[] lines = calendar.split("\r\n");
+        int continuations = 0;
+        for (String line : lines) {
+            byte[] octets = line.getBytes(StandardCharsets.UTF_8);
+            assertTrue(octets.length <= 75, line);
+            // A split sequence would not survive the round trip through UTF-8
+            assertEquals(line, new String(octets, StandardCharsets.UTF_8));
+            assertFalse(Character.isHighSurrogate(line.charAt(line.length() - 1)), line);
+            if (line.startsWith(" ")) {
+                continuations++;
+            }
+        }
+        assertTrue(continuations > 5);
+
+        // Unfolding (dropping each CRLF followed by a space) gives back the escaped value
+        String unfolded = calendar.replace("\r\n ", "");
+        assertTrue(unfolded.contains("\r\nDESCRIPTION:" + ICalendarWriter.escape(description) + "\r\n"));
+    }
+
+    private static String write(ICalendarWriter.Event event) throws IOException {
+        StringWriter out = new StringWriter();
+        ICalendarWriter writer = new ICalendarWriter(out);
+        writer.begin("FixItNow bookings");
+        writer.event(event);
+        writer.end();
+        return out.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.fixitnow.service;
+
+import com.fixitnow.service.IntervalTree.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTest {
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 900, 920);
+
+        assertFalse(tree.overlaps(920, 940));
+        assertFalse(tree.overlaps(880, 900));
+        assertTrue(tree.overlaps(919, 921));
+        assertTrue(tree.overlaps(850, 1000));
+    }
+
+    @Test
+    void collectReturnsOverlappingIntervalsByStart() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(3, 600, 700);
+        tree.insert(1, 100, 200);
+        tree.insert(2, 150, 500);
+        tree.insert(4, 800, 900);
+
+        List<Interval> result = new ArrayList<>();
+        tree.collect(180, 650, result);
+
+        assertEquals(List.of(new Interval(1, 100, 200), new Interval(2, 150, 500), new Interval(3, 600, 700)), result);
+    }
+
+    @Test
+    void removeNeedsTheMatchingIdAndStart() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 100, 200);
+        tree.insert(2, 100, 300);
+
+        assertFalse(tree.remove(1, 150));
+        assertFalse(tree.remove(3, 100));
+        assertTrue(tree.remove(2, 100));
+        assertEquals(1, tree.size());
+        // Only the shorter interval is left, so the cached max end has to have shrunk
+        assertFalse(tree.overlaps(250, 260));
+        assertTrue(tree.overlaps(150, 160));
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomInsertsAndRemovals() {
+        Random random = new Random(13);
+        IntervalTree tree = new IntervalTree();
+        List<Interval> live = new ArrayList<>();
+        for (int step = 0; step < 4000; step++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                Interval removed = live.remove(random.nextInt(live.size()));
+                assertTrue(tree.remove(removed.id(), removed.start()));
+            } else {
+                long start = random.nextInt(1000);
+                Interval added = new Interval(step, start, start + 1 + random.nextInt(60));
+                tree.insert(added.id(), added.start(), added.end());
+                live.add(added);
+            }
+            assertEquals(live.size(), tree.size());
+
+            long from = random.nextInt(1000);
+            long to = from + 1 + random.nextInt(80);
+            List<Interval> expected = live.stream()
+                    .filter(interval -> interval.start() < to && from < interval.end())
+                    .sorted(Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id))
+                    .toList();
+            List<Interval> collected = new ArrayList<>();
+            tree.collect(from, to, collected);
+
+            assertEquals(expected, collected, from + ".." + to);
+            assertEquals(!expected.isEmpty(), tree.overlaps(from, to), from + ".." + to);
+        }
+    }
+}
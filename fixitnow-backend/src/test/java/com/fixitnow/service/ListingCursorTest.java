@@ -0,0 +1,47 @@
+package com.fixitnow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        ListingCursor cursor = new ListingCursor("recent", "2026-03-01T10:15:30.123456Z", 42L);
+
+        String token = cursor.encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token must be URL-safe without padding");
+        assertEquals(cursor, ListingCursor.decode(token));
+    }
+
+    @Test
+    void keepsAnEmptyValue() {
+        ListingCursor cursor = new ListingCursor("popular", "", 7L);
+
+        assertEquals(cursor, ListingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void valueMayContainTheSeparator() {
+        ListingCursor cursor = new ListingCursor("rank", "a|b", 9L);
+
+        assertEquals(cursor, ListingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(encode("no-separators")));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(encode("recent|value|notanumber")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes());
+    }
+}
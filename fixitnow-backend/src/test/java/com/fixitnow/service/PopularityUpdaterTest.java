@@ -0,0 +1,73 @@
+package com.fixitnow.service;
+
+import com.fixitnow.repository.ServiceListingRepository;
+import com.fixitnow.repository.ServiceSearchEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PopularityUpdaterTest {
+
+    private final ServiceListingRepository serviceListingRepository = mock(ServiceListingRepository.class);
+    private final ServiceSearchEntryRepository searchEntryRepository = mock(ServiceSearchEntryRepository.class);
+    private final ServiceListingSearchIndex searchIndex = mock(ServiceListingSearchIndex.class);
+    private final SearchResultCache searchCache = mock(SearchResultCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private PopularityUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        updater = new PopularityUpdater(serviceListingRepository, searchEntryRepository, searchIndex, searchCache,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void failedFlushKeepsTheDeltasAndLeavesMemoryAlone() {
+        updater.recordView(1L);
+        when(serviceListingRepository.addActivity(anyLong(), anyDouble())).thenThrow(new IllegalStateException("down"));
+
+        updater.flush();
+
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(searchIndex, searchCache);
+
+        // The next flush writes the kept view together with the new one, then updates memory
+        reset(serviceListingRepository);
+        updater.recordView(1L);
+        updater.flush();
+
+        ArgumentCaptor<Double> written = ArgumentCaptor.forClass(Double.class);
+        verify(serviceListingRepository).addActivity(eq(1L), written.capture());
+        verify(searchIndex).addActivity(1L, written.getValue());
+        verify(searchCache).invalidatePopularity();
+        double oneView = PopularityScore.event(PopularityScore.VIEW_WEIGHT, Instant.now());
+        assertEquals(oneView + Math.log(2), written.getValue(), 0.01);
+    }
+
+    @Test
+    void successfulFlushUpdatesMemoryAfterCommit() {
+        updater.recordBookings(2L, 3);
+
+        updater.flush();
+
+        var order = inOrder(searchEntryRepository, transactionManager, searchIndex);
+        order.verify(searchEntryRepository).addActivity(eq(2L), anyDouble());
+        order.verify(transactionManager).commit(any());
+        order.verify(searchIndex).addActivity(eq(2L), anyDouble());
+
+        // Nothing pending: a second flush does no work
+        updater.flush();
+        verify(serviceListingRepository, times(1)).addActivity(anyLong(), anyDouble());
+    }
+}
@@ -0,0 +1,185 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.BookingRequest;
+import com.fixitnow.dto.BookingResponse;
+import com.fixitnow.dto.RecurringBookingRequest;
+import com.fixitnow.dto.RecurringBookingRequest.Frequency;
+import com.fixitnow.dto.RecurringBookingResponse;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RecurringBookingTest {
+
+    private final AtomicInteger providers = new AtomicInteger();
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+
+    private Long customerId;
+    private ServiceCategory category;
+
+    @BeforeAll
+    void createCustomer() {
+        customerId = userRepository.save(User.builder()
+                .name("Recurring customer")
+                .email("recurring-customer@example.com")
+                .password("secret")
+                .role(Role.CUSTOMER)
+                .build()).getId();
+        category = categoryRepository.save(ServiceCategory.builder().name("Recurring category").build());
+    }
+
+    @Test
+    void monthlyOccurrencesStayOnTheFirstDateWherePossible() {
+        LocalDateTime first = LocalDate.of(LocalDate.now().getYear() + 1, 1, 31).atTime(10, 0);
+        RecurringBookingRequest request = request(newListing(), first, Frequency.MONTHLY);
+        request.setOccurrences(4);
+
+        RecurringBookingResponse result = bookingService.createRecurringBookings(customerId, request);
+
+        int year = first.getYear();
+        assertEquals(List.of(first, YearMonth.of(year, 2).atEndOfMonth().atTime(10, 0),
+                        LocalDate.of(year, 3, 31).atTime(10, 0), LocalDate.of(year, 4, 30).atTime(10, 0)),
+                dates(result.getBookings()));
+        assertEquals(List.of(), result.getSkippedDates());
+    }
+
+    @Test
+    void untilIsInclusiveAndIntervalSkipsPeriods() {
+        LocalDateTime first = LocalDate.now().plusDays(20).atTime(9, 0);
+        RecurringBookingRequest request = request(newListing(), first, Frequency.WEEKLY);
+        request.setInterval(2);
+        request.setUntil(first.plusWeeks(4));
+
+        RecurringBookingResponse result = bookingService.createRecurringBookings(customerId, request);
+
+        assertEquals(List.of(first, first.plusWeeks(2), first.plusWeeks(4)), dates(result.getBookings()));
+    }
+
+    @Test
+    void conflictsAreSkippedOnlyWhenNotAllOrNothing() {
+        ServiceListing listing = newListing();
+        LocalDateTime first = LocalDate.now().plusDays(20).atTime(9, 0);
+        BookingRequest single = new BookingRequest();
+        single.setServiceListingId(listing.getId());
+        single.setBookingDate(first.plusDays(1));
+        single.setTimeSlot("11:00-12:00");
+        single.setTotalPrice(BigDecimal.valueOf(50));
+        bookingService.createBooking(customerId, single);
+
+        RecurringBookingRequest request = request(listing, first, Frequency.DAILY);
+        request.setOccurrences(3);
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> bookingService.createRecurringBookings(customerId, request));
+        assertTrue(error.getMessage().contains("not available"));
+        assertEquals(1, bookingsOf(listing));
+
+        request.setAllOrNothing(false);
+        RecurringBookingResponse result = bookingService.createRecurringBookings(customerId, request);
+
+        assertEquals(List.of(first, first.plusDays(2)), dates(result.getBookings()));
+        assertEquals(List.of(first.plusDays(1)), result.getSkippedDates());
+        assertEquals(3, bookingsOf(listing));
+    }
+
+    @Test
+    void occurrencesThatOverlapEachOtherAreSkipped() {
+        LocalDateTime first = LocalDate.now().plusDays(20).atStartOfDay();
+        RecurringBookingRequest request = request(newListing(), first, Frequency.DAILY);
+        // 30 hours from 09:00, so each occurrence runs into the next one
+        request.setTimeSlot("09:00");
+        request.setDurationHours(30);
+        request.setOccurrences(4);
+        request.setAllOrNothing(false);
+
+        RecurringBookingResponse result = bookingService.createRecurringBookings(customerId, request);
+
+        assertEquals(List.of(first, first.plusDays(2)), dates(result.getBookings()));
+        assertEquals(List.of(first.plusDays(1), first.plusDays(3)), result.getSkippedDates());
+    }
+
+    @Test
+    void tooManyOccurrencesAreRejectedRatherThanCut() {
+        LocalDateTime first = LocalDate.now().plusDays(20).atTime(9, 0);
+        ServiceListing listing = newListing();
+        RecurringBookingRequest request = request(listing, first, Frequency.DAILY);
+        request.setUntil(first.plusDays(100));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> bookingService.createRecurringBookings(customerId, request));
+
+        assertTrue(error.getMessage().contains("more than 100"));
+        assertEquals(0, bookingsOf(listing));
+
+        request.setUntil(first.plusDays(99));
+        assertEquals(100, bookingService.createRecurringBookings(customerId, request).getBookings().size());
+    }
+
+    private List<LocalDateTime> dates(List<BookingResponse> bookings) {
+        return bookings.stream().map(BookingResponse::getBookingDate).toList();
+    }
+
+    private long bookingsOf(ServiceListing listing) {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getServiceListing().getId().equals(listing.getId()))
+                .count();
+    }
+
+    private ServiceListing newListing() {
+        int n = providers.incrementAndGet();
+        User user = userRepository.save(User.builder()
+                .name("Recurring provider " + n)
+                .email("recurring-provider-" + n + "@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(user).build());
+        return serviceListingRepository.save(ServiceListing.builder()
+                .providerProfile(provider)
+                .category(category)
+                .title("Recurring listing " + n)
+                .description("Recurring listing")
+                .price(BigDecimal.valueOf(50))
+                .pricingType(PricingType.FIXED)
+                .active(true)
+                .build());
+    }
+
+    private static RecurringBookingRequest request(ServiceListing listing, LocalDateTime first, Frequency frequency) {
+        RecurringBookingRequest request = new RecurringBookingRequest();
+        request.setServiceListingId(listing.getId());
+        request.setBookingDate(first);
+        request.setTimeSlot("10:00-12:00");
+        request.setTotalPrice(BigDecimal.valueOf(50));
+        request.setFrequency(frequency);
+        return request;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ServiceListingDTO;
+import com.fixitnow.dto.ServiceSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchResultCacheTest {
+
+    private final Page<ServiceListingDTO> page = new PageImpl<>(List.of(ServiceListingDTO.builder().id(1L).build()));
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+    }
+
+    @Test
+    void defaultKeywordSearchIsInvalidatedWithPopularity() {
+        ServiceSearchRequest request = ServiceSearchRequest.builder().keyword("plumber").build();
+        cache.put(request, page, cache.generation());
+        assertNotNull(cache.get(request));
+
+        cache.invalidatePopularity();
+
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    void defaultBrowseIsKeptWhenPopularityChanges() {
+        ServiceSearchRequest request = ServiceSearchRequest.builder().categoryId(3L).build();
+        cache.put(request, page, cache.generation());
+
+        cache.invalidatePopularity();
+
+        assertNotNull(cache.get(request));
+    }
+
+    @Test
+    void defaultAndExplicitRelevanceShareAnEntry() {
+        cache.put(ServiceSearchRequest.builder().keyword("Plumbers").build(), page, cache.generation());
+
+        assertNotNull(cache.get(ServiceSearchRequest.builder().keyword("plumber").sortBy("Relevance").build()));
+    }
+}
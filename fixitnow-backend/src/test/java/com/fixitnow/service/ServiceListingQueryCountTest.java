@@ -0,0 +1,104 @@
+package com.fixitnow.service;
+
+import com.fixitnow.SqlStatementCounter;
+import com.fixitnow.dto.ServiceListingDTO;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ServiceListingQueryCountTest {
+
+    // id page, count, joined rows, image URLs, availability days
+    private static final int STATEMENTS_PER_PAGE = 5;
+
+    @Autowired
+    private ServiceListingService serviceListingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceSubcategoryRepository subcategoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+
+    @BeforeAll
+    void createListings() {
+        ServiceCategory category = categoryRepository.save(ServiceCategory.builder().name("Query count category").build());
+        ServiceSubcategory subcategory = subcategoryRepository.save(
+                ServiceSubcategory.builder().name("Query count subcategory").category(category).build());
+        // Several providers, so a per-row provider/user load would show up as extra statements
+        for (int p = 0; p < 5; p++) {
+            User user = userRepository.save(User.builder()
+                    .name("Query count provider " + p)
+                    .email("query-count-provider-" + p + "@example.com")
+                    .password("secret")
+                    .role(Role.PROVIDER)
+                    .build());
+            ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(user).build());
+            for (int i = 0; i < 6; i++) {
+                serviceListingRepository.save(ServiceListing.builder()
+                        .providerProfile(provider)
+                        .category(category)
+                        .subcategory(subcategory)
+                        .title("Listing " + p + "-" + i)
+                        .description("Query count listing")
+                        .price(BigDecimal.valueOf(50 + i))
+                        .pricingType(PricingType.FIXED)
+                        .serviceLocation("Pune")
+                        .imageUrls(List.of("https://example.com/" + p + "-" + i + "-a.jpg",
+                                "https://example.com/" + p + "-" + i + "-b.jpg"))
+                        .availabilityDays(List.of("Monday", "Wednesday", "Friday"))
+                        .active(true)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void listingPageCostsAConstantNumberOfStatements() {
+        int smallPage = statementsFor(5);
+        int fullPage = statementsFor(20);
+
+        assertEquals(STATEMENTS_PER_PAGE, smallPage);
+        assertEquals(STATEMENTS_PER_PAGE, fullPage);
+    }
+
+    private int statementsFor(int size) {
+        SqlStatementCounter.start();
+        Page<ServiceListingDTO> page;
+        int statements;
+        try {
+            page = serviceListingService.findAllActiveServices(0, size);
+        } finally {
+            statements = SqlStatementCounter.stop();
+        }
+
+        assertEquals(size, page.getContent().size());
+        for (ServiceListingDTO dto : page.getContent()) {
+            assertNotNull(dto.getProviderName());
+            assertNotNull(dto.getCategoryName());
+            assertFalse(dto.getImageUrls().isEmpty());
+            assertFalse(dto.getAvailabilityDays().isEmpty());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.CursorPageDTO;
+import com.fixitnow.dto.ServiceListingDTO;
+import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.model.*;
+import com.fixitnow.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ServiceListingScrollTest {
+
+    @Autowired
+    private ServiceListingService serviceListingService;
+    @Autowired
+    private ServiceSearchViewService searchViewService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+    @Autowired
+    private ServiceCategoryRepository categoryRepository;
+    @Autowired
+    private ServiceListingRepository serviceListingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeAll
+    void createListings() {
+        ServiceCategory category = categoryRepository.save(ServiceCategory.builder().name("Scroll category").build());
+        categoryId = category.getId();
+        User user = userRepository.save(User.builder()
+                .name("Scroll provider")
+                .email("scroll-provider@example.com")
+                .password("secret")
+                .role(Role.PROVIDER)
+                .build());
+        ProviderProfile provider = providerProfileRepository.save(ProviderProfile.builder().user(user).build());
+        for (int i = 0; i < 7; i++) {
+            ServiceListing listing = serviceListingRepository.save(ServiceListing.builder()
+                    .providerProfile(provider)
+                    .category(category)
+                    .title("Scroll listing " + i)
+                    .description("Scroll listing")
+                    .price(BigDecimal.valueOf(40 + i))
+                    .pricingType(PricingType.FIXED)
+                    .active(true)
+                    .build());
+            searchViewService.refreshListing(listing);
+            ids.add(listing.getId());
+        }
+        // Three rows without a score or rating, two tied, two distinct
+        Double[] scores = {null, 12.0, null, 12.0, 30.0, null, 5.0};
+        for (int i = 0; i < ids.size(); i++) {
+            jdbcTemplate.update("UPDATE service_search_view SET popularity_score = ?, provider_rating = ? WHERE id = ?",
+                    scores[i], scores[i] != null ? BigDecimal.valueOf(scores[i] / 10) : null, ids.get(i));
+        }
+    }
+
+    @Test
+    void popularPagesVisitEveryListingOnceWithNullScoresLast() {
+        assertEquals(expectedOrder(), scrollAll("popular"));
+    }
+
+    @Test
+    void ratingPagesVisitEveryListingOnceWithUnratedLast() {
+        assertEquals(expectedOrder(), scrollAll("rating"));
+    }
+
+    // Highest key first, ties and nulls by id descending, nulls last
+    private List<Long> expectedOrder() {
+        return List.of(ids.get(4), ids.get(3), ids.get(1), ids.get(6), ids.get(5), ids.get(2), ids.get(0));
+    }
+
+    private List<Long> scrollAll(String sortBy) {
+        List<Long> visited = new ArrayList<>();
+        String cursor = "";
+        for (int page = 0; page < 10 && cursor != null; page++) {
+            CursorPageDTO<ServiceListingDTO> result = serviceListingService.scrollServices(ServiceSearchRequest.builder()
+                    .categoryId(categoryId)
+                    .sortBy(sortBy)
+                    .cursor(cursor)
+                    .size(2)
+                    .build());
+            result.getContent().forEach(dto -> visited.add(dto.getId()));
+            cursor = result.getNextCursor();
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,122 @@
+package com.fixitnow.service;
+
+import com.fixitnow.dto.ServiceSearchRequest;
+import com.fixitnow.model.PricingType;
+import com.fixitnow.model.ProviderProfile;
+import com.fixitnow.model.ServiceCategory;
+import com.fixitnow.model.ServiceListing;
+import com.fixitnow.model.ServiceSubcategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServiceListingSearchIndexTest {
+
+    private final ServiceCategory homeRepair = ServiceCategory.builder().id(1L).name("Home Repair").build();
+    private final ServiceSubcategory pipes = ServiceSubcategory.builder().id(10L).name("Pipes").category(homeRepair).build();
+    private final ProviderProfile topRated = ProviderProfile.builder().id(100L).rating(new BigDecimal("4.9")).build();
+    private final ProviderProfile lowRated = ProviderProfile.builder().id(101L).rating(new BigDecimal("3.1")).build();
+    private final ProviderProfile unrated = ProviderProfile.builder().id(102L).rating(null).build();
+
+    private ServiceListingSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ServiceListingSearchIndex(null);
+    }
+
+    @Test
+    void titleMatchOutranksDescriptionMatch() {
+        index.index(listing(1L, lowRated, "Garden cleanup", "Also fixes a leaking tap now and then"));
+        index.index(listing(2L, lowRated, "Leaking tap fixed fast", "Same-day visits"));
+        index.index(listing(3L, lowRated, "House painting", "Interior and exterior walls"));
+
+        assertEquals(List.of(2L, 1L), index.search(keyword("leaking tap")));
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        index.index(listing(1L, lowRated, "Plumbing repair", "General plumbing"));
+        index.index(listing(2L, lowRated, "Plumbing and boiler service", "Boilers serviced"));
+        index.index(listing(3L, lowRated, "Plumbing installs", "New pipes"));
+
+        // "plumbing" is in every listing, so "boiler" decides the order
+        assertEquals(2L, index.search(keyword("plumbing boiler")).get(0));
+    }
+
+    @Test
+    void ratingSortIsHighestFirstRegardlessOfOrder() {
+        index.index(listing(1L, lowRated, "Tap repair", "Taps"));
+        index.index(listing(2L, unrated, "Tap repair", "Taps"));
+        index.index(listing(3L, topRated, "Tap repair", "Taps"));
+
+        ServiceSearchRequest request = keyword("tap");
+        request.setSortBy("rating");
+        request.setSortOrder("asc");
+        assertEquals(List.of(3L, 1L, 2L), index.search(request));
+    }
+
+    @Test
+    void renamedCategoryIsFoundByItsNewName() {
+        index.index(listing(1L, lowRated, "Tap repair", "Taps"));
+
+        index.renameCategory(homeRepair.getId(), "Handyman");
+
+        assertEquals(List.of(1L), index.search(keyword("handyman")));
+        assertTrue(index.search(keyword("home")).isEmpty());
+        assertEquals("Handyman", index.facets(keyword("tap")).getCategories().get(0).getLabel());
+    }
+
+    @Test
+    void renamedSubcategoryIsFoundByItsNewNameAndByTypos() {
+        index.index(listing(1L, lowRated, "Tap repair", "Taps"));
+
+        index.renameSubcategory(pipes.getId(), "Drainage");
+
+        assertEquals(List.of(1L), index.search(keyword("drainage")));
+        assertTrue(index.search(keyword("pipes")).isEmpty());
+        ServiceSearchRequest typo = keyword("drainaje");
+        typo.setFuzzy(true);
+        assertEquals(List.of(1L), index.search(typo));
+    }
+
+    @Test
+    void removedAndDeactivatedListingsAreNotReturned() {
+        index.index(listing(1L, lowRated, "Tap repair", "Taps"));
+        index.index(listing(2L, lowRated, "Tap repair", "Taps"));
+        index.index(listing(3L, lowRated, "Tap repair", "Taps"));
+
+        index.remove(1L);
+        ServiceListing deactivated = listing(2L, lowRated, "Tap repair", "Taps");
+        deactivated.setActive(false);
+        index.index(deactivated);
+
+        assertEquals(List.of(3L), index.search(keyword("tap")));
+        assertEquals(1, index.size());
+    }
+
+    private ServiceListing listing(Long id, ProviderProfile provider, String title, String description) {
+        return ServiceListing.builder()
+                .id(id)
+                .providerProfile(provider)
+                .category(homeRepair)
+                .subcategory(pipes)
+                .title(title)
+                .description(description)
+                .price(new BigDecimal("80"))
+                .pricingType(PricingType.FIXED)
+                .activityScore(0.0)
+                .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+                .build();
+    }
+
+    private static ServiceSearchRequest keyword(String keyword) {
+        return ServiceSearchRequest.builder().keyword(keyword).build();
+    }
+}
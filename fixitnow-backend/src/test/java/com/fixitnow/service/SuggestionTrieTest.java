@@ -0,0 +1,118 @@
+package com.fixitnow.service;
+
+import com.fixitnow.service.SuggestionTrie.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTest {
+
+    @Test
+    void returnsHeaviestCompletionsOfThePrefix() {
+        SuggestionTrie trie = new SuggestionTrie();
+        insert(trie, "plumber", 5);
+        insert(trie, "plumbing repair", 40);
+        insert(trie, "plasterer", 90);
+        insert(trie, "plumbing installs", 20);
+
+        assertEquals(List.of("plumbing repair", "plumbing installs", "plumber"), texts(trie.top("plum", 5)));
+        assertEquals(List.of("plasterer", "plumbing repair"), texts(trie.top("pl", 2)));
+    }
+
+    @Test
+    void prefixEndingInsideAnEdgeStillMatches() {
+        SuggestionTrie trie = new SuggestionTrie();
+        insert(trie, "electrician", 10);
+
+        assertEquals(List.of("electrician"), texts(trie.top("elect", 5)));
+        assertTrue(trie.top("electro", 5).isEmpty());
+        assertTrue(trie.top("x", 5).isEmpty());
+    }
+
+    @Test
+    void sameTextIsOnlySuggestedOnce() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.insert("painting", new Suggestion("Painting", "category", 1L, 50));
+        trie.insert("painting", new Suggestion("painting", "listing", 7L, 30));
+        trie.insert("painter", new Suggestion("Painter", "skill", null, 10));
+
+        List<Suggestion> top = trie.top("pain", 5);
+
+        assertEquals(List.of("Painting", "Painter"), texts(top));
+        assertEquals("category", top.get(0).type());
+    }
+
+    @Test
+    void removalUpdatesRankingAndPrunesEmptyBranches() {
+        SuggestionTrie trie = new SuggestionTrie();
+        Suggestion heavy = insert(trie, "carpenter", 100);
+        insert(trie, "carpet cleaning", 10);
+        insert(trie, "car wash", 50);
+
+        trie.remove("carpenter", heavy);
+
+        assertEquals(List.of("car wash", "carpet cleaning"), texts(trie.top("car", 5)));
+        assertTrue(trie.top("carpen", 5).isEmpty());
+        // Removing something that was never inserted changes nothing
+        trie.remove("carpet cleaning", new Suggestion("carpet cleaning", "listing", 99L, 10));
+        assertEquals(List.of("carpet cleaning"), texts(trie.top("carpet", 5)));
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomInsertsAndRemovals() {
+        Random random = new Random(3);
+        SuggestionTrie trie = new SuggestionTrie();
+        Map<String, Suggestion> live = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            String key = randomKey(random);
+            Suggestion existing = live.remove(key);
+            if (existing != null) {
+                trie.remove(key, existing);
+            } else {
+                Suggestion suggestion = new Suggestion(key, "listing", (long) step, random.nextInt(1000));
+                trie.insert(key, suggestion);
+                live.put(key, suggestion);
+            }
+        }
+
+        for (String prefix : List.of("", "a", "ab", "ba", "cab", "abc")) {
+            List<Suggestion> expected = new ArrayList<>();
+            for (Suggestion suggestion : live.values()) {
+                if (suggestion.text().startsWith(prefix)) {
+                    expected.add(suggestion);
+                }
+            }
+            expected.sort(Comparator.comparingLong(Suggestion::weight).reversed());
+            List<Long> expectedWeights = expected.stream().limit(8).map(Suggestion::weight).toList();
+            assertEquals(expectedWeights, trie.top(prefix, 8).stream().map(Suggestion::weight).toList(), prefix);
+        }
+    }
+
+    private static Suggestion insert(SuggestionTrie trie, String text, long weight) {
+        Suggestion suggestion = new Suggestion(text, "listing", null, weight);
+        trie.insert(text, suggestion);
+        return suggestion;
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+
+    // Short keys over a three-letter alphabet, so they share prefixes and split edges often
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(5);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.fixitnow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    @Test
+    void findsTermsWithinTheEditBudget() {
+        TrigramIndex index = new TrigramIndex();
+        List.of("plumber", "plumbing", "painter", "electrician").forEach(index::add);
+
+        assertEquals(Map.of("plumber", 1), matches(index, "plumbr", 1));
+        assertEquals(Map.of("plumber", 2, "plumbing", 1), matches(index, "plumbin", 2));
+        assertEquals(Map.of("electrician", 2), matches(index, "eletrisian", 2));
+        assertTrue(matches(index, "carpenter", 2).isEmpty());
+    }
+
+    @Test
+    void zeroEditsOnlyMatchesTheTermItself() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("tap");
+
+        assertEquals(Map.of("tap", 0), matches(index, "tap", 0));
+        assertTrue(matches(index, "tip", 0).isEmpty());
+    }
+
+    @Test
+    void termsAreReferenceCounted() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("roofing");
+        index.add("roofing");
+
+        index.remove("roofing");
+        assertEquals(Map.of("roofing", 1), matches(index, "rofing", 1));
+
+        index.remove("roofing");
+        assertTrue(matches(index, "rofing", 1).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void boundedDistanceAgreesWithLevenshteinUpToTheBound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            String a = randomTerm(random, 0, 8);
+            String b = randomTerm(random, 0, 8);
+            int max = random.nextInt(4);
+            int exact = levenshtein(a, b);
+            assertEquals(Math.min(exact, max + 1), TrigramIndex.boundedDistance(a, b, max), a + " / " + b + " max " + max);
+        }
+    }
+
+    @Test
+    void similarMatchesBruteForce() {
+        Random random = new Random(5);
+        TrigramIndex index = new TrigramIndex();
+        Set<String> vocabulary = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String term = randomTerm(random, 2, 9);
+            vocabulary.add(term);
+            index.add(term);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomTerm(random, 2, 9);
+            int maxEdits = 1 + random.nextInt(2);
+            Map<String, Integer> expected = new TreeMap<>();
+            for (String term : vocabulary) {
+                int distance = levenshtein(query, term);
+                if (distance <= maxEdits) {
+                    expected.put(term, distance);
+                }
+            }
+            assertEquals(expected, matches(index, query, maxEdits), query);
+        }
+    }
+
+    private static Map<String, Integer> matches(TrigramIndex index, String query, int maxEdits) {
+        Map<String, Integer> result = new TreeMap<>();
+        for (TrigramIndex.Match match : index.similar(query, maxEdits)) {
+            result.put(match.term(), match.distance());
+        }
+        return result;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    // Small alphabet, so random terms are often within a couple of edits of each other
+    private static String randomTerm(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            term.append((char) ('a' + random.nextInt(4)));
+        }
+        return term.toString();
+    }
+}